@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+# Tiempo hasta el primer request (GET / respondido con 200) desde que se lanza la JVM, en dos modos:
+#   default:    java -jar del build normal
+#   optimizado: lo mismo que arma el dockerfile (Spring AOT, clases en jars, archivo CDS entrenado)
+# Los dos con el perfil por defecto (H2 en memoria), para comparar solo el arranque.
+#
+# Uso: scripts/startup-benchmark.sh [corridas]      (5 por defecto; PORT=18090)
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18090}
+cd "$(dirname "$0")/.."
+WORK=target/startup-benchmark
+
+echo "== build default"
+./mvnw -B -q clean package -DskipTests
+mkdir -p "$WORK/default"
+cp target/app.jar "$WORK/default/app.jar"
+
+echo "== build optimizado (aot + capas + CDS)"
+./mvnw -B -q -Paot package -DskipTests -Daot.profiles=default
+rm -rf "$WORK/extracted" "$WORK/optimized"
+java -Djarmode=layertools -jar target/app.jar extract --destination "$WORK/extracted"
+mkdir -p "$WORK/optimized/lib"
+find "$WORK/extracted/dependencies" "$WORK/extracted/snapshot-dependencies" -name '*.jar' -exec cp {} "$WORK/optimized/lib/" \;
+jar --create --file "$WORK/optimized/app.jar" -C "$WORK/extracted/application/BOOT-INF/classes" .
+(
+  cd "$WORK/optimized"
+  printf -- '-cp app.jar:%s\n' "$(ls lib/*.jar | paste -sd:)" > classpath.args
+  java -XX:ArchiveClassesAtExit=app.jsa -Xlog:cds=off -Dspring.aot.enabled=true \
+       -Dspring.context.exit=onRefresh -Dlogging.level.root=WARN @classpath.args com.splitwise.SplitwiseApplication
+)
+
+# Lanza la aplicación (en el directorio $1, con el resto como comando) y devuelve los ms hasta el primer 200.
+time_to_first_request() {
+  local dir=$1; shift
+  local start pid elapsed
+  start=$(date +%s%N)
+  (cd "$dir" && exec "$@" --server.port="$PORT" --logging.level.root=WARN >/dev/null 2>&1) &
+  pid=$!
+  until curl -sf -o /dev/null "http://localhost:$PORT/"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "la aplicación terminó antes de responder" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed"
+}
+
+report() {
+  local mode=$1; shift
+  local sorted
+  sorted=$(printf '%s\n' "$@" | sort -n)
+  printf '%-11s min %6d ms   mediana %6d ms   max %6d ms   (%s)\n' "$mode" \
+    "$(echo "$sorted" | head -1)" "$(echo "$sorted" | sed -n "$(( ($# + 1) / 2 ))p")" \
+    "$(echo "$sorted" | tail -1)" "$(echo "$*" | tr ' ' ',')"
+}
+
+default_times=()
+optimized_times=()
+for i in $(seq 1 "$RUNS"); do
+  echo "== corrida $i/$RUNS"
+  default_times+=("$(time_to_first_request "$WORK/default" java -jar app.jar)")
+  optimized_times+=("$(time_to_first_request "$WORK/optimized" java -XX:SharedArchiveFile=app.jsa \
+      -Dspring.aot.enabled=true @classpath.args com.splitwise.SplitwiseApplication)")
+done
+
+echo
+echo "Tiempo hasta el primer request ($RUNS corridas):"
+report default "${default_times[@]}"
+report optimizado "${optimized_times[@]}"
@@ -0,0 +1,37 @@
+package com.splitwise.benchmark;
+
+import com.splitwise.SplitwiseApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Levanta el contexto de la aplicación sin servidor web, contra una H2 en memoria propia.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... extraProperties) {
+        // Como argumentos de línea de comandos: tienen prioridad sobre application.yml
+        // (SpringApplicationBuilder.properties() solo define valores por defecto).
+        String[] args = new String[extraProperties.length + 4];
+        // OPTIMIZE_REUSE_RESULTS=FALSE: H2 no devuelve el resultado anterior de una consulta
+        // repetida sin cambios en las tablas (se mediría la caché, no la consulta).
+        // Un nombre es una H2 en memoria propia; una URL jdbc: se usa tal cual (p. ej. H2 en archivo).
+        args[0] = "--spring.datasource.url=" + (database.startsWith("jdbc:") ? database
+                : "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        args[1] = "--logging.level.root=WARN";
+        args[2] = "--spring.main.banner-mode=off";
+        // Sin recálculo en segundo plano: competiría por la CPU con lo que se mide.
+        args[3] = "--splitwise.summary-precompute.enabled=false";
+        for (int i = 0; i < extraProperties.length; i++) {
+            args[4 + i] = "--" + extraProperties[i];
+        }
+        return new SpringApplicationBuilder(SplitwiseApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args);
+    }
+}
@@ -0,0 +1,105 @@
+package com.splitwise.benchmark;
+
+import com.splitwise.dto.PersonSummaryRow;
+import com.splitwise.dto.SettlementPlan;
+import com.splitwise.model.Expense;
+import com.splitwise.service.ExpenseService;
+import com.splitwise.service.TripSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminos calientes de ExpenseService contra H2 embebida.
+ * Throughput + SampleTime (percentiles); con -prof gc se agrega la tasa de asignación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseServiceBenchmark {
+
+    @Param("200")
+    private int people;
+
+    @Param("50000")
+    private int expenses;
+
+    @Param("5")
+    private int participants;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private Long tripId;
+    private TripSnapshot snapshot;
+    private List<PersonSummaryRow> summary;
+    private Long[] payers;
+    private List<List<Long>> participantSets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("bench-expenses");
+        expenseService = context.getBean(ExpenseService.class);
+        SyntheticTrip trip = SyntheticTrip.create(context, people, expenses, participants, 42L);
+        tripId = trip.getTripId();
+        snapshot = expenseService.getSnapshot(tripId);
+        summary = snapshot.toSummaryRows();
+
+        // Pagadores y participantes precalculados para no medir el Random en createExpense.
+        Random random = new Random(7L);
+        List<Long> ids = trip.getPersonIds();
+        payers = new Long[1024];
+        participantSets = new ArrayList<>(1024);
+        for (int i = 0; i < 1024; i++) {
+            payers[i] = ids.get(random.nextInt(ids.size()));
+            List<Long> set = new ArrayList<>(participants);
+            int first = random.nextInt(ids.size());
+            for (int k = 0; k < Math.min(participants, ids.size()); k++) {
+                set.add(ids.get((first + k) % ids.size()));
+            }
+            participantSets.add(set);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** Resumen desde el libro de saldos (camino de la página). */
+    @Benchmark
+    public List<PersonSummaryRow> getSummary() {
+        return expenseService.getSummary(tripId);
+    }
+
+    /** Resumen recalculado con SUM ... GROUP BY, para comparar con el libro. */
+    @Benchmark
+    public List<PersonSummaryRow> computeSummary() {
+        return expenseService.computeSummary(tripId);
+    }
+
+    @Benchmark
+    public SettlementPlan computeTransfers() {
+        return expenseService.computeTransfers(snapshot);
+    }
+
+    /** Variante con filas ya armadas, como la reciben los llamadores externos. */
+    @Benchmark
+    public SettlementPlan computeTransfersFromRows() {
+        return expenseService.computeTransfers(summary);
+    }
+
+    @Benchmark
+    public Expense createExpense() {
+        int i = next++ & 1023;
+        return expenseService.createExpense(tripId, "Bench", new BigDecimal("123.45"), payers[i], participantSets.get(i));
+    }
+}
@@ -0,0 +1,63 @@
+package com.splitwise.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de arranque con datos ya guardados: H2 en archivo abre la base; el journal lee
+ * snapshot y segmentos y carga la H2 en memoria. Incluye el arranque de Spring, que es
+ * igual para los dos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JournalRecoveryBenchmark {
+
+    @Param({"h2-file", "journal"})
+    private String store;
+
+    @Param("200")
+    private int people;
+
+    @Param("100000")
+    private int expenses;
+
+    @Param("5")
+    private int participants;
+
+    private Path dir;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-recovery");
+        try (ConfigurableApplicationContext loading = Stores.start(store, dir, "bench-recovery")) {
+            SyntheticTrip.create(loading, people, expenses, participants, 42L);
+        }
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext recover() {
+        context = Stores.start(store, dir, "bench-recovery");
+        return context;
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeContext() {
+        context.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(dir);
+    }
+}
@@ -0,0 +1,80 @@
+package com.splitwise.benchmark;
+
+import com.splitwise.model.Expense;
+import com.splitwise.service.ExpenseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de escritura (createExpense) según dónde se persiste: ver Stores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalWriteBenchmark {
+
+    @Param({"h2-mem", "h2-file", "journal", "journal-sync"})
+    private String store;
+
+    @Param("50")
+    private int people;
+
+    @Param("5")
+    private int participants;
+
+    private Path dir;
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private Long tripId;
+    private Long[] payers;
+    private List<List<Long>> participantSets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-write");
+        context = Stores.start(store, dir, "bench-journal-write");
+        expenseService = context.getBean(ExpenseService.class);
+        SyntheticTrip trip = SyntheticTrip.create(context, people, 0, participants, 42L);
+        tripId = trip.getTripId();
+
+        Random random = new Random(7L);
+        List<Long> ids = trip.getPersonIds();
+        payers = new Long[1024];
+        participantSets = new ArrayList<>(1024);
+        for (int i = 0; i < 1024; i++) {
+            payers[i] = ids.get(random.nextInt(ids.size()));
+            List<Long> set = new ArrayList<>(participants);
+            int first = random.nextInt(ids.size());
+            for (int k = 0; k < Math.min(participants, ids.size()); k++) {
+                set.add(ids.get((first + k) % ids.size()));
+            }
+            participantSets.add(set);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Expense createExpense() {
+        int i = next++ & 1023;
+        return expenseService.createExpense(tripId, "Bench", new BigDecimal("123.45"), payers[i], participantSets.get(i));
+    }
+}
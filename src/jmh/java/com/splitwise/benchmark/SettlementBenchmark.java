@@ -0,0 +1,50 @@
+package com.splitwise.benchmark;
+
+import com.splitwise.service.ExactSettlementStrategy;
+import com.splitwise.service.GreedySettlementStrategy;
+import com.splitwise.service.TransferPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estrategias de liquidación lado a lado sobre saldos aleatorios en centavos (sin Spring ni base).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettlementBenchmark {
+
+    @Param({"10", "20", "25"})
+    private int balances;
+
+    private long[] values;
+    private final GreedySettlementStrategy greedy = new GreedySettlementStrategy();
+    private final ExactSettlementStrategy exact = new ExactSettlementStrategy(30, 1000);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(11L);
+        values = new long[balances];
+        long total = 0;
+        for (int i = 0; i < balances - 1; i++) {
+            values[i] = random.nextInt(100_000) - 50_000;
+            total += values[i];
+        }
+        values[balances - 1] = -total;
+    }
+
+    @Benchmark
+    public TransferPlan greedy() {
+        return greedy.settle(values);
+    }
+
+    @Benchmark
+    public TransferPlan exact() {
+        return exact.settle(values);
+    }
+}
@@ -0,0 +1,29 @@
+package com.splitwise.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+/**
+ * Formas de persistir que comparan los benchmarks del journal:
+ * h2-mem (sin durabilidad, referencia), h2-file (H2 en disco), journal y journal-sync
+ * (journal con msync en cada commit). Los datos van en dir.
+ */
+final class Stores {
+
+    private Stores() {
+    }
+
+    static ConfigurableApplicationContext start(String store, Path dir, String name) {
+        return switch (store) {
+            case "h2-mem" -> BenchmarkApplication.start(name);
+            case "h2-file" -> BenchmarkApplication.start("jdbc:h2:file:" + dir.resolve(name));
+            // H2 en memoria sin DB_CLOSE_DELAY: se descarta al cerrar el contexto y el próximo arranque la reconstruye.
+            case "journal", "journal-sync" -> BenchmarkApplication.start("jdbc:h2:mem:" + name + System.nanoTime(),
+                    "spring.profiles.active=journal",
+                    "splitwise.journal.dir=" + dir,
+                    "splitwise.journal.sync=" + "journal-sync".equals(store));
+            default -> throw new IllegalArgumentException("Store desconocido: " + store);
+        };
+    }
+}
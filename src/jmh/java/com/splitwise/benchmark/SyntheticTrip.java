@@ -0,0 +1,74 @@
+package com.splitwise.benchmark;
+
+import com.splitwise.model.Person;
+import com.splitwise.service.ExpenseImportService;
+import com.splitwise.service.TripService;
+import org.springframework.context.ApplicationContext;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generador de viajes sintéticos: N personas y M gastos, cada uno dividido entre
+ * K participantes elegidos al azar (semilla fija, resultados reproducibles).
+ * Los gastos se cargan con la importación CSV para que el armado sea rápido.
+ */
+public final class SyntheticTrip {
+
+    private final Long tripId;
+    private final List<Long> personIds;
+
+    private SyntheticTrip(Long tripId, List<Long> personIds) {
+        this.tripId = tripId;
+        this.personIds = personIds;
+    }
+
+    public static SyntheticTrip create(ApplicationContext context, int people, int expenses,
+                                       int participantsPerExpense, long seed) {
+        TripService tripService = context.getBean(TripService.class);
+        ExpenseImportService importService = context.getBean(ExpenseImportService.class);
+
+        Long tripId = tripService.createTrip("Viaje sintético " + people + "x" + expenses).getId();
+        List<String> names = new ArrayList<>(people);
+        List<Long> personIds = new ArrayList<>(people);
+        for (int i = 0; i < people; i++) {
+            Person person = tripService.addPerson(tripId, String.format("Persona %05d", i));
+            names.add(person.getName());
+            personIds.add(person.getId());
+        }
+
+        Random random = new Random(seed);
+        int perExpense = Math.min(participantsPerExpense, people);
+        StringBuilder csv = new StringBuilder(expenses * 64);
+        for (int e = 0; e < expenses; e++) {
+            csv.append("Gasto ").append(e).append(',')
+                    .append(BigDecimal.valueOf(100 + random.nextInt(50_000), 2).toPlainString()).append(',')
+                    .append(names.get(random.nextInt(people))).append(',');
+            int first = random.nextInt(people);
+            for (int k = 0; k < perExpense; k++) {
+                if (k > 0) csv.append(';');
+                csv.append(names.get((first + k * 7) % people));
+            }
+            csv.append('\n');
+        }
+        try {
+            importService.importCsv(tripId, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new SyntheticTrip(tripId, personIds);
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+
+    public List<Long> getPersonIds() {
+        return personIds;
+    }
+}
@@ -0,0 +1,80 @@
+package com.splitwise.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencias de una operación en microsegundos, por hilo (sin sincronización) y combinadas al final.
+ */
+final class Latencies {
+
+    /** Límites superiores de los tramos del histograma, en milisegundos. */
+    private static final long[] BUCKETS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private long[] micros = new long[1024];
+    private int count;
+    private int errors;
+
+    void record(long elapsedMicros, boolean ok) {
+        if (count == micros.length) {
+            micros = Arrays.copyOf(micros, count * 2);
+        }
+        micros[count++] = elapsedMicros;
+        if (!ok) errors++;
+    }
+
+    void addAll(Latencies other) {
+        if (count + other.count > micros.length) {
+            micros = Arrays.copyOf(micros, Math.max(micros.length * 2, count + other.count));
+        }
+        System.arraycopy(other.micros, 0, micros, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    /** Ordena las muestras; llamar antes de percentile y histogram. */
+    void sort() {
+        Arrays.sort(micros, 0, count);
+    }
+
+    double percentileMs(double percentile) {
+        if (count == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return micros[Math.max(0, Math.min(count - 1, index))] / 1000.0;
+    }
+
+    String histogram() {
+        StringBuilder out = new StringBuilder();
+        int from = 0;
+        long lower = 0;
+        for (long upper : BUCKETS_MS) {
+            int to = upperIndex(upper * 1000);
+            appendBucket(out, "<" + upper + " ms", to - from);
+            from = to;
+            lower = upper;
+        }
+        appendBucket(out, ">=" + lower + " ms", count - from);
+        return out.toString();
+    }
+
+    private void appendBucket(StringBuilder out, String label, int samples) {
+        if (samples == 0) return;
+        int bar = (int) Math.round(40.0 * samples / count);
+        out.append(String.format("      %10s %8d %s%n", label, samples, "#".repeat(bar)));
+    }
+
+    /** Primera posición con una muestra >= limitMicros. */
+    private int upperIndex(long limitMicros) {
+        int index = Arrays.binarySearch(micros, 0, count, limitMicros);
+        if (index < 0) return -index - 1;
+        while (index > 0 && micros[index - 1] == limitMicros) index--;
+        return index;
+    }
+}
@@ -0,0 +1,86 @@
+package com.splitwise.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parámetros de la carga, como clave=valor (los que empiezan con -- van a la aplicación):
+ * <ul>
+ *   <li>users (500): usuarios concurrentes, cada uno en su hilo, sin pausa entre requests.</li>
+ *   <li>warmup (5) y duration (30): segundos de calentamiento (no se mide) y de medición.</li>
+ *   <li>people (20) y expenses (500): personas y gastos iniciales del viaje compartido.</li>
+ *   <li>Pesos de cada operación: home (5), view (40), summary (30), expense (20), person (5).</li>
+ * </ul>
+ */
+final class LoadConfig {
+
+    /** Operaciones, en el orden en que se reportan. */
+    static final List<String> OPERATIONS = List.of("home", "view", "summary", "expense", "person");
+
+    int users = 500;
+    int warmupSeconds = 5;
+    int durationSeconds = 30;
+    int people = 20;
+    int expenses = 500;
+    final Map<String, Integer> weights = new LinkedHashMap<>();
+    final List<String> appArgs = new ArrayList<>();
+
+    LoadConfig() {
+        weights.put("home", 5);
+        weights.put("view", 40);
+        weights.put("summary", 30);
+        weights.put("expense", 20);
+        weights.put("person", 5);
+    }
+
+    static LoadConfig parse(String[] args) {
+        LoadConfig config = new LoadConfig();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                config.appArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Se esperaba clave=valor: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            int value = Integer.parseInt(arg.substring(eq + 1));
+            switch (key) {
+                case "users" -> config.users = value;
+                case "warmup" -> config.warmupSeconds = value;
+                case "duration" -> config.durationSeconds = value;
+                case "people" -> config.people = value;
+                case "expenses" -> config.expenses = value;
+                default -> {
+                    if (!config.weights.containsKey(key)) {
+                        throw new IllegalArgumentException("Parámetro desconocido: " + key);
+                    }
+                    config.weights.put(key, value);
+                }
+            }
+        }
+        return config;
+    }
+
+    /** Operación para un número al azar en [0, suma de pesos). */
+    String pick(int roll) {
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            roll -= weight.getValue();
+            if (roll < 0) return weight.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    int totalWeight() {
+        return weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "users=" + users + " warmup=" + warmupSeconds + "s duration=" + durationSeconds + "s people=" + people
+                + " expenses=" + expenses + " mix=" + weights;
+    }
+}
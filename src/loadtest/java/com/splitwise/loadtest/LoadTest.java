@@ -0,0 +1,338 @@
+package com.splitwise.loadtest;
+
+import com.splitwise.SplitwiseApplication;
+import com.splitwise.datasource.ReadRouting;
+import com.splitwise.datasource.ShardContext;
+import com.splitwise.dto.PersonSummaryRow;
+import com.splitwise.service.ExpenseService;
+import com.splitwise.service.TripService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Prueba de carga en el mismo proceso: levanta la aplicación completa (Tomcat, pools, cachés)
+ * en un puerto libre, arma un viaje compartido y lo golpea con usuarios concurrentes que mezclan
+ * lecturas y escrituras según los pesos de {@link LoadConfig}.
+ * <p>
+ * Informa throughput, percentiles (p50/p99/p99.9) e histograma de latencia y errores por
+ * operación. Al final verifica que los saldos del viaje cierren con los gastos que el servidor
+ * aceptó: sale con código 1 si no.
+ * <p>
+ * Los POST siempre redirigen, también cuando el servidor rechaza la escritura (validación o
+ * IllegalArgumentException): el resultado va como mensaje flash en la página siguiente. Por eso
+ * cada usuario guarda su cookie de sesión y sigue la redirección, como un navegador; la escritura
+ * cuenta como aceptada solo si esa página muestra el mensaje de éxito. Las rechazadas cuentan
+ * como errores y no suman a lo pagado esperado.
+ */
+public final class LoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    /** Lo que muestra la página del viaje cuando la escritura anterior se aceptó (mensaje flash). */
+    private static final String ACCEPTED = "class=\"alert alert-success\"";
+
+    private final LoadConfig config;
+    private final HttpClient client;
+    private final String baseUrl;
+    private final long tripId;
+    private final List<Long> personIds;
+
+    private LoadTest(LoadConfig config, int port, long tripId, List<Long> personIds) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        this.baseUrl = "http://localhost:" + port;
+        this.tripId = tripId;
+        this.personIds = personIds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        System.out.println("Carga: " + config);
+        ConfigurableApplicationContext context = start(config);
+        int exitCode;
+        try {
+            exitCode = run(config, context);
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext start(LoadConfig config) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--spring.main.banner-mode=off",
+                // application.yml desactiva la caché de plantillas (desarrollo): se mediría el parseo.
+                "--spring.thymeleaf.cache=true"));
+        // Los de la línea de comandos van después: ganan sobre los de arriba.
+        args.addAll(config.appArgs);
+        return new SpringApplicationBuilder(SplitwiseApplication.class)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+    }
+
+    private static int run(LoadConfig config, ConfigurableApplicationContext context) throws InterruptedException {
+        TripService tripService = context.getBean(TripService.class);
+        ExpenseService expenseService = context.getBean(ExpenseService.class);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        long tripId = tripService.createTrip("Prueba de carga").getId();
+        List<Long> personIds = ShardContext.onTrip(tripId, () -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < config.people; i++) {
+                ids.add(tripService.addPerson(tripId, "Persona " + i).getId());
+            }
+            for (int i = 0; i < config.expenses; i++) {
+                expenseService.createExpense(tripId, "Inicial " + i, randomAmount(),
+                        randomPerson(ids), randomParticipants(ids));
+            }
+            return ids;
+        });
+        BigDecimal initialPaid = totalPaid(expenseService, tripId);
+        System.out.printf("Viaje %d: %d personas, %d gastos, servidor en el puerto %d%n",
+                tripId, config.people, config.expenses, port);
+
+        LoadTest test = new LoadTest(config, port, tripId, personIds);
+        List<User> users = test.runUsers();
+
+        Map<String, Latencies> merged = new LinkedHashMap<>();
+        LoadConfig.OPERATIONS.forEach(op -> merged.put(op, new Latencies()));
+        BigDecimal acceptedPaid = BigDecimal.ZERO;
+        long rejected = 0;
+        for (User user : users) {
+            user.latencies.forEach((op, latencies) -> merged.get(op).addAll(latencies));
+            acceptedPaid = acceptedPaid.add(user.acceptedPaid);
+            rejected += user.rejected;
+        }
+        report(config, merged);
+        System.out.printf("%nEscrituras rechazadas por el servidor: %d%n", rejected);
+
+        return verify(expenseService, tripId, initialPaid.add(acceptedPaid)) ? 0 : 1;
+    }
+
+    /** Lanza los usuarios, espera calentamiento más medición y los junta. */
+    private List<User> runUsers() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(config.warmupSeconds).toNanos();
+        long end = measureFrom + Duration.ofSeconds(config.durationSeconds).toNanos();
+        List<User> users = new ArrayList<>(config.users);
+        List<Thread> threads = new ArrayList<>(config.users);
+        for (int i = 0; i < config.users; i++) {
+            User user = new User(measureFrom, end);
+            users.add(user);
+            Thread thread = new Thread(user, "usuario-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return users;
+    }
+
+    /** Un usuario: requests seguidos hasta el final, con latencias propias (sin contención entre hilos). */
+    private final class User implements Runnable {
+
+        private final long measureFrom;
+        private final long end;
+        private final Map<String, Latencies> latencies = new LinkedHashMap<>();
+        /** Suma de los gastos aceptados, incluidos los del calentamiento. */
+        private BigDecimal acceptedPaid = BigDecimal.ZERO;
+        /** Escrituras que el servidor rechazó (redirigió con un mensaje de error), incluidas las del calentamiento. */
+        private long rejected;
+        /** Cookie de sesión (JSESSIONID=...), donde el servidor deja los mensajes flash. */
+        private String session;
+
+        User(long measureFrom, long end) {
+            this.measureFrom = measureFrom;
+            this.end = end;
+            LoadConfig.OPERATIONS.forEach(op -> latencies.put(op, new Latencies()));
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int totalWeight = config.totalWeight();
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                String op = config.pick(random.nextInt(totalWeight));
+                BigDecimal amount = op.equals("expense") ? randomAmount() : null;
+                boolean ok;
+                try {
+                    ok = send(op, amount);
+                } catch (Exception e) {
+                    ok = false;
+                }
+                long finished = System.nanoTime();
+                if (ok && amount != null) {
+                    acceptedPaid = acceptedPaid.add(amount);
+                }
+                if (now >= measureFrom && finished <= end) {
+                    latencies.get(op).record((finished - now) / 1000, ok);
+                }
+            }
+        }
+
+        private boolean send(String op, BigDecimal amount) throws Exception {
+            String trip = "/trips/" + tripId;
+            return switch (op) {
+                case "home" -> get("/") == 200;
+                case "view" -> get(trip) == 200;
+                case "summary" -> get(trip + "/summary") == 200;
+                case "expense" -> submit(trip + "/expenses", expenseForm(amount));
+                case "person" -> submit(trip + "/people", "name=" + encode("Carga " + ThreadLocalRandom.current().nextInt(1_000_000)));
+                default -> throw new IllegalStateException(op);
+            };
+        }
+
+        private int get(String path) throws Exception {
+            return client.send(request(URI.create(baseUrl + path)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
+        /**
+         * Envía el formulario y sigue la redirección. true si la página a la que redirige muestra
+         * el mensaje de éxito; si muestra un error, la escritura se cuenta como rechazada.
+         */
+        private boolean submit(String path, String form) throws Exception {
+            HttpResponse<Void> response = client.send(request(URI.create(baseUrl + path))
+                            .header("Content-Type", "application/x-www-form-urlencoded")
+                            .POST(HttpRequest.BodyPublishers.ofString(form))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            response.headers().firstValue("Set-Cookie")
+                    .filter(cookie -> cookie.startsWith("JSESSIONID="))
+                    .ifPresent(cookie -> session = cookie.split(";", 2)[0]);
+            Optional<String> location = response.headers().firstValue("Location");
+            if (response.statusCode() != 302 || location.isEmpty()) {
+                return false;
+            }
+            HttpResponse<String> page = client.send(request(URI.create(baseUrl).resolve(location.get())).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (page.statusCode() != 200) {
+                return false;
+            }
+            if (!page.body().contains(ACCEPTED)) {
+                rejected++;
+                return false;
+            }
+            return true;
+        }
+
+        private HttpRequest.Builder request(URI uri) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT);
+            if (session != null) {
+                request.header("Cookie", session);
+            }
+            return request;
+        }
+    }
+
+    private String expenseForm(BigDecimal amount) {
+        StringBuilder form = new StringBuilder("description=").append(encode("Gasto de carga"))
+                .append("&amount=").append(amount.toPlainString())
+                .append("&paidById=").append(randomPerson(personIds));
+        for (Long id : randomParticipants(personIds)) {
+            form.append("&participantIds=").append(id);
+        }
+        return form.toString();
+    }
+
+    private static void report(LoadConfig config, Map<String, Latencies> byOperation) {
+        System.out.printf("%n%-8s %9s %9s %8s %9s %9s %9s %9s%n",
+                "op", "requests", "req/s", "errores", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Latencies all = new Latencies();
+        for (Map.Entry<String, Latencies> entry : byOperation.entrySet()) {
+            printRow(entry.getKey(), entry.getValue(), config.durationSeconds);
+            all.addAll(entry.getValue());
+        }
+        printRow("total", all, config.durationSeconds);
+        for (Map.Entry<String, Latencies> entry : byOperation.entrySet()) {
+            if (entry.getValue().count() > 0) {
+                System.out.printf("%n  %s%n%s", entry.getKey(), entry.getValue().histogram());
+            }
+        }
+    }
+
+    private static void printRow(String op, Latencies latencies, int seconds) {
+        latencies.sort();
+        System.out.printf("%-8s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f%n", op, latencies.count(),
+                (double) latencies.count() / seconds, latencies.errors(), latencies.percentileMs(50),
+                latencies.percentileMs(99), latencies.percentileMs(99.9), latencies.percentileMs(100));
+    }
+
+    /**
+     * Saldos después de la carga: lo pagado en la base tiene que ser lo inicial más los gastos
+     * aceptados, y el libro (lo que muestra el resumen) tiene que coincidir con lo que sale de
+     * recalcular desde los gastos, persona por persona.
+     */
+    private static boolean verify(ExpenseService expenseService, long tripId, BigDecimal expectedPaid) {
+        return ShardContext.onTrip(tripId, () -> ReadRouting.onPrimary(() -> {
+            BigDecimal paid = totalPaid(expenseService, tripId);
+            Map<Long, PersonSummaryRow> computed = expenseService.computeSummary(tripId).stream()
+                    .collect(Collectors.toMap(PersonSummaryRow::getPersonId, row -> row));
+            List<String> mismatches = new ArrayList<>();
+            for (PersonSummaryRow ledger : expenseService.getSummary(tripId)) {
+                PersonSummaryRow row = computed.get(ledger.getPersonId());
+                if (row == null || row.getTotalPaid().compareTo(ledger.getTotalPaid()) != 0
+                        || row.getTotalConsumed().compareTo(ledger.getTotalConsumed()) != 0) {
+                    mismatches.add(ledger.getPersonName());
+                }
+            }
+            System.out.printf("%nTotal pagado: %s (esperado %s)%n", paid, expectedPaid);
+            boolean ok = paid.compareTo(expectedPaid) == 0 && mismatches.isEmpty();
+            if (!mismatches.isEmpty()) {
+                System.out.println("Libro desfasado para: " + mismatches);
+            }
+            System.out.println(ok ? "Saldos consistentes." : "SALDOS INCONSISTENTES.");
+            return ok;
+        }));
+    }
+
+    private static BigDecimal totalPaid(ExpenseService expenseService, long tripId) {
+        return ShardContext.onTrip(tripId, () -> ReadRouting.onPrimary(() -> expenseService.computeSummary(tripId).stream()
+                .map(PersonSummaryRow::getTotalPaid)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)));
+    }
+
+    private static BigDecimal randomAmount() {
+        return BigDecimal.valueOf(ThreadLocalRandom.current().nextLong(100, 100_000), 2);
+    }
+
+    private static Long randomPerson(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    /** Entre 1 y 5 participantes distintos. */
+    private static List<Long> randomParticipants(List<Long> ids) {
+        List<Long> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, ThreadLocalRandom.current());
+        return shuffled.subList(0, Math.min(shuffled.size(), 1 + ThreadLocalRandom.current().nextInt(5)));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -10,10 +10,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 /**
  * Pantalla principal: crear viaje y listar viajes.
  */
@@ -28,9 +27,9 @@ public class HomeController {
     }
 
     @GetMapping
-    public String home(Model model) {
-        List<Trip> trips = tripService.findAllTrips();
-        model.addAttribute("trips", trips);
+    public String home(@RequestParam(required = false) Long before, Model model) {
+        model.addAttribute("trips", tripService.findTripPage(before));
+        model.addAttribute("firstPage", before == null);
         if (!model.containsAttribute("trip")) {
             model.addAttribute("trip", new Trip());
         }
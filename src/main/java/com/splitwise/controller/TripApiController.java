@@ -0,0 +1,49 @@
+package com.splitwise.controller;
+
+import com.splitwise.service.TripSummaryJsonService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * API JSON para tableros: resúmenes de varios viajes en un solo request.
+ */
+@RestController
+@RequestMapping("/api/trips")
+public class TripApiController {
+
+    /** Máximo de viajes por request. */
+    static final int MAX_IDS = 200;
+
+    private final TripSummaryJsonService summaryJsonService;
+
+    public TripApiController(TripSummaryJsonService summaryJsonService) {
+        this.summaryJsonService = summaryJsonService;
+    }
+
+    /** GET /api/trips/summaries?ids=1,2,3 (o ids=1&ids=2). */
+    @GetMapping("/summaries")
+    public void summaries(@RequestParam List<Long> ids, HttpServletResponse response) throws IOException {
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        if (unique.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Debe indicar al menos un viaje.");
+        }
+        if (unique.size() > MAX_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Máximo " + MAX_IDS + " viajes por consulta.");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        summaryJsonService.write(unique, response.getOutputStream());
+    }
+}
@@ -1,21 +1,39 @@
 package com.splitwise.controller;
 
 import com.splitwise.dto.AddExpenseForm;
-import com.splitwise.dto.PersonSummaryRow;
-import com.splitwise.dto.TransferSuggestion;
-import com.splitwise.model.Expense;
+import com.splitwise.dto.ImportResult;
+import com.splitwise.dto.TripSummary;
 import com.splitwise.model.Person;
 import com.splitwise.model.Trip;
+import com.splitwise.service.ExpenseExportService;
+import com.splitwise.service.ExpenseImportService;
 import com.splitwise.service.ExpenseService;
+import com.splitwise.service.LedgerService;
+import com.splitwise.service.SummaryPrecomputer;
 import com.splitwise.service.TripService;
+import com.splitwise.service.TripVersions;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.RequestContextUtils;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Vista de viaje: personas, gastos, formularios. Resumen de saldos.
@@ -26,14 +44,31 @@ public class TripController {
 
     private final TripService tripService;
     private final ExpenseService expenseService;
+    private final LedgerService ledgerService;
+    private final ExpenseImportService expenseImportService;
+    private final ExpenseExportService expenseExportService;
+    private final TripVersions tripVersions;
+    private final SummaryPrecomputer summaryPrecomputer;
 
-    public TripController(TripService tripService, ExpenseService expenseService) {
+    public TripController(TripService tripService, ExpenseService expenseService, LedgerService ledgerService,
+                          ExpenseImportService expenseImportService, ExpenseExportService expenseExportService,
+                          TripVersions tripVersions, SummaryPrecomputer summaryPrecomputer) {
         this.tripService = tripService;
         this.expenseService = expenseService;
+        this.ledgerService = ledgerService;
+        this.expenseImportService = expenseImportService;
+        this.expenseExportService = expenseExportService;
+        this.tripVersions = tripVersions;
+        this.summaryPrecomputer = summaryPrecomputer;
     }
 
     @GetMapping("/{id}")
-    public String tripView(@PathVariable Long id, @RequestParam(required = false) String tab, Model model, RedirectAttributes redirectAttributes) {
+    public String tripView(@PathVariable Long id, @RequestParam(required = false) String tab,
+                           @RequestParam(required = false) Long before, Model model,
+                           RedirectAttributes redirectAttributes, ServletWebRequest webRequest) {
+        if (notModified(id, webRequest)) {
+            return null;
+        }
         Trip trip;
         try {
             trip = tripService.getTripById(id);
@@ -42,11 +77,10 @@ public class TripController {
             return "redirect:/";
         }
         List<Person> people = tripService.getPeopleByTripId(id);
-        List<Expense> expenses = expenseService.getExpensesByTripId(id);
 
         model.addAttribute("trip", trip);
         model.addAttribute("people", people);
-        model.addAttribute("expenses", expenses);
+        model.addAttribute("expenses", expenseService.getExpensePage(id, before));
         model.addAttribute("activeTab", "gastos".equalsIgnoreCase(tab) ? "gastos" : "personas");
         if (!model.containsAttribute("expenseForm")) {
             AddExpenseForm form = new AddExpenseForm();
@@ -55,6 +89,22 @@ public class TripController {
         return "trip";
     }
 
+    /** Filas de la siguiente página de gastos, para cargarlas desde la página del viaje. */
+    @GetMapping("/{id}/expenses")
+    public String expenseRows(@PathVariable Long id, @RequestParam Long before, Model model,
+                              ServletWebRequest webRequest) {
+        if (notModified(id, webRequest)) {
+            return null;
+        }
+        try {
+            model.addAttribute("trip", tripService.getTripById(id));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        model.addAttribute("expenses", expenseService.getExpensePage(id, before));
+        return "trip :: expenseRows";
+    }
+
     @PostMapping("/{id}/people")
     public String addPerson(@PathVariable Long id, @RequestParam String name, RedirectAttributes redirectAttributes) {
         String trimmed = name != null ? name.trim() : "";
@@ -96,8 +146,55 @@ public class TripController {
         return "redirect:/trips/" + id + "?tab=gastos";
     }
 
+    /** Importación masiva desde CSV (descripción, monto, pagador, participantes separados por ';'). */
+    @PostMapping("/{id}/expenses/import")
+    public String importExpenses(@PathVariable Long id, @RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes) {
+        if (file.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Seleccioná un archivo CSV para importar.");
+            return "redirect:/trips/" + id + "?tab=gastos";
+        }
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            ImportResult result = expenseImportService.importCsv(id, reader);
+            redirectAttributes.addFlashAttribute("message", "Importados " + result.getRows() + " gastos en "
+                    + result.getElapsedMillis() + " ms (" + result.getRowsPerSecond() + " filas/s).");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("error", "No se pudo leer el archivo.");
+        }
+        return "redirect:/trips/" + id + "?tab=gastos";
+    }
+
+    @GetMapping("/{id}/export.csv")
+    public void exportCsv(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        export(id, ExpenseExportService.Format.CSV, response);
+    }
+
+    @GetMapping("/{id}/export.jsonl")
+    public void exportJsonLines(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        export(id, ExpenseExportService.Format.JSONL, response);
+    }
+
+    private void export(Long id, ExpenseExportService.Format format, HttpServletResponse response) throws IOException {
+        Trip trip;
+        try {
+            trip = tripService.getTripById(id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("viaje-" + trip.getId() + "." + format.getExtension()).build().toString());
+        expenseExportService.export(id, format, response.getOutputStream());
+    }
+
     @GetMapping("/{id}/summary")
-    public String summary(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
+    public String summary(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes,
+                          ServletWebRequest webRequest) {
+        if (notModified(id, webRequest)) {
+            return null;
+        }
         Trip trip;
         try {
             trip = tripService.getTripById(id);
@@ -105,14 +202,39 @@ public class TripController {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
             return "redirect:/";
         }
-        List<PersonSummaryRow> summary = expenseService.getSummary(id);
-        List<TransferSuggestion> transfers = expenseService.computeTransfers(summary);
+        // Si ya hay un recálculo en camino se muestra el último resumen y se avisa que no es el vigente.
+        boolean pending = summaryPrecomputer.isPending(id);
+        TripSummary summary = expenseService.getTripSummary(id, pending);
+        // Sin recálculo en camino el resumen es de la versión vigente: no hace falta volver a leerla.
+        boolean stale = pending && summary.getVersion() < tripVersions.current(id);
+        if (stale) {
+            webRequest.getResponse().setHeader(HttpHeaders.ETAG, "\"" + tripVersions.tag(id, summary.getVersion()) + "\"");
+        }
         model.addAttribute("trip", trip);
-        model.addAttribute("summary", summary);
-        model.addAttribute("transfers", transfers);
+        model.addAttribute("stale", stale);
+        model.addAttribute("computedAt", Instant.ofEpochMilli(summary.getComputedAt()));
+        model.addAttribute("summary", summary.getRows());
+        model.addAttribute("transfers", summary.getSettlement().getTransfers());
+        model.addAttribute("settlement", summary.getSettlement());
         return "summary";
     }
 
+    /** Administración: recalcula el libro de saldos desde los gastos para detectar desfasajes. */
+    @PostMapping("/{id}/ledger/rebuild")
+    public String rebuildLedger(@PathVariable Long id, RedirectAttributes redirectAttributes) {
+        try {
+            tripService.getTripById(id);
+            int corrected = ledgerService.rebuild(id);
+            redirectAttributes.addFlashAttribute("message", corrected == 0
+                    ? "Saldos verificados: no había diferencias."
+                    : "Saldos recalculados: " + corrected + " persona(s) corregida(s).");
+            return "redirect:/trips/" + id + "/summary";
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/";
+        }
+    }
+
     @GetMapping("/{id}/edit")
     public String editTripForm(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
         try {
@@ -222,4 +344,19 @@ public class TripController {
             return "redirect:/trips/" + tripId;
         }
     }
+
+    /**
+     * GET condicional con ETag por versión del viaje: si el navegador ya tiene la versión
+     * actual responde 304 sin consultar la base ni renderizar. Con mensajes flash la página
+     * es distinta, así que no se cachea.
+     */
+    private boolean notModified(Long tripId, ServletWebRequest webRequest) {
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(webRequest.getRequest());
+        if (flash != null && !flash.isEmpty()) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            return false;
+        }
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return webRequest.checkNotModified(tripVersions.tag(tripId));
+    }
 }
@@ -0,0 +1,82 @@
+package com.splitwise.datasource;
+
+import com.splitwise.service.TripVersions;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Réplica de lectura: solo se activa si hay splitwise.datasource.replica.url.
+ * Dos pools (primary con spring.datasource.*, replica con splitwise.datasource.replica.*)
+ * detrás de un DataSource que elige por transacción; JPA usa ese, Flyway migra la principal.
+ * Cada pool publica sus métricas hikaricp.* con su nombre (tag pool).
+ */
+@Configuration
+// Con sharding cada shard es una sola base: la réplica no se combina con él.
+@ConditionalOnExpression("'${splitwise.datasource.replica.url:}' != '' and !${splitwise.sharding.enabled:false}")
+public class DataSourceRoutingConfig implements WebMvcConfigurer {
+
+    /** Se pide recién al registrar el interceptor: TripVersions lee de los DataSource que se definen acá. */
+    private final ObjectProvider<TripVersions> tripVersions;
+    private final int readYourWritesSeconds;
+    private final long maxLagMs;
+
+    public DataSourceRoutingConfig(ObjectProvider<TripVersions> tripVersions,
+                                   @Value("${splitwise.datasource.replica.read-your-writes-seconds:5}") int readYourWritesSeconds,
+                                   @Value("${splitwise.datasource.replica.max-lag-ms:1000}") long maxLagMs) {
+        this.tripVersions = tripVersions;
+        this.readYourWritesSeconds = readYourWritesSeconds;
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    @Bean
+    @ConfigurationProperties("splitwise.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        // Se enlaza a mano: un segundo bean DataSourceProperties competiría con el de spring.datasource.
+        DataSourceProperties properties = Binder.get(environment)
+                .bind("splitwise.datasource.replica", DataSourceProperties.class)
+                .orElseGet(DataSourceProperties::new);
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("replica");
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new ReadYourWritesInterceptor(tripVersions.getObject(), readYourWritesSeconds, maxLagMs));
+    }
+}
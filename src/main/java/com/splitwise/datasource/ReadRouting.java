@@ -0,0 +1,44 @@
+package com.splitwise.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Decide, por hilo, si las transacciones de solo lectura pueden ir a la réplica.
+ * Por defecto sí; se fuerza la base principal cuando hace falta leer lo último escrito
+ * (request después de un POST, viaje recién modificado, cálculos que se guardan en caché).
+ * Sin réplica configurada no tiene efecto.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY.get());
+    }
+
+    public static void forcePrimary() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY.remove();
+    }
+
+    /** Ejecuta la acción leyendo de la base principal y restaura el estado anterior. */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY.remove();
+            } else {
+                PRIMARY.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.splitwise.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Envía las transacciones de solo lectura a la réplica y todo lo demás a la principal.
+ * Tiene que usarse detrás de un LazyConnectionDataSourceProxy: la conexión se pide
+ * recién en la primera sentencia, cuando la transacción ya marcó si es readOnly.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadRouting.isPrimaryForced()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
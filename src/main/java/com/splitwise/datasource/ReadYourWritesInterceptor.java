@@ -0,0 +1,67 @@
+package com.splitwise.datasource;
+
+import com.splitwise.service.TripVersions;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Elige la base de cada request:
+ * <ul>
+ *   <li>Escrituras (todo lo que no es GET/HEAD): principal, y se deja una cookie para que
+ *       los requests del mismo navegador durante read-your-writes-seconds (la página a la
+ *       que redirige el POST, por ejemplo) también lean de la principal.</li>
+ *   <li>Páginas de un viaje modificado hace menos de max-lag-ms: principal, aunque las pida
+ *       otro navegador. La versión del viaje (ETag, caché de resúmenes) ya es la nueva y la
+ *       réplica podría no tener todavía esos datos.</li>
+ *   <li>El resto de las lecturas: réplica.</li>
+ * </ul>
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    static final String COOKIE = "splitwise-rw";
+
+    private final TripVersions tripVersions;
+    private final int readYourWritesSeconds;
+    private final long maxLagMs;
+
+    public ReadYourWritesInterceptor(TripVersions tripVersions, int readYourWritesSeconds, long maxLagMs) {
+        this.tripVersions = tripVersions;
+        this.readYourWritesSeconds = readYourWritesSeconds;
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!isRead(request)) {
+            ReadRouting.forcePrimary();
+            if (readYourWritesSeconds > 0) {
+                Cookie cookie = new Cookie(COOKIE, "1");
+                cookie.setPath("/");
+                cookie.setMaxAge(readYourWritesSeconds);
+                cookie.setHttpOnly(true);
+                response.addCookie(cookie);
+            }
+        } else if ((readYourWritesSeconds > 0 && WebUtils.getCookie(request, COOKIE) != null)
+                || recentlyChangedTrip(request)) {
+            ReadRouting.forcePrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadRouting.clear();
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    private boolean recentlyChangedTrip(HttpServletRequest request) {
+        Long tripId = RequestTrips.tripId(request);
+        return tripId != null && tripVersions.changedWithin(tripId, maxLagMs);
+    }
+}
@@ -0,0 +1,32 @@
+package com.splitwise.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Id del viaje al que apunta un request (variable {tripId} o {id} de /trips/...), o null.
+ */
+final class RequestTrips {
+
+    private RequestTrips() {
+    }
+
+    static Long tripId(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null) {
+            return null;
+        }
+        String tripId = variables.get(variables.containsKey("tripId") ? "tripId" : "id");
+        if (tripId == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(tripId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.splitwise.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard de la base sobre el que trabaja el hilo actual (0 si no se indicó).
+ * Lo fijan el interceptor de requests (a partir del viaje de la URL), la creación de
+ * viajes y los recorridos que abarcan varios shards. Sin sharding no tiene efecto.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    public static void set(int shard) {
+        CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Ejecuta la acción sobre el shard indicado y restaura el anterior. No puede cambiar de
+     * shard dentro de una transacción: su conexión ya quedó atada al shard en que empezó.
+     */
+    public static <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        if (shard != current() && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("No se puede cambiar de shard dentro de una transacción.");
+        }
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /** Ejecuta la acción sobre el shard del viaje. */
+    public static <T> T onTrip(Long tripId, Supplier<T> action) {
+        return onShard(TripShards.shardOf(tripId), action);
+    }
+}
@@ -0,0 +1,38 @@
+package com.splitwise.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Fija el shard del request según el viaje de la URL. Los requests sin viaje (inicio,
+ * crear viaje, API de varios viajes) eligen o recorren shards en el servicio. Un viaje
+ * cuyo id codifica un shard no configurado no existe: 404.
+ */
+public class ShardInterceptor implements HandlerInterceptor {
+
+    private final TripShards tripShards;
+
+    public ShardInterceptor(TripShards tripShards) {
+        this.tripShards = tripShards;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long tripId = RequestTrips.tripId(request);
+        if (tripId != null) {
+            if (!tripShards.hasShard(tripId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Viaje no encontrado: " + tripId);
+            }
+            ShardContext.set(TripShards.shardOf(tripId));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ShardContext.clear();
+    }
+}
@@ -0,0 +1,153 @@
+package com.splitwise.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding por viaje (splitwise.sharding.enabled): el shard 0 es spring.datasource y los
+ * siguientes, splitwise.sharding.shards[n]. Todos tienen el mismo esquema; Flyway migra
+ * cada uno al arrancar y después se ajusta la identidad de trips para que sus ids
+ * codifiquen el shard (ver TripShards). JPA usa un único DataSource que elige el pool
+ * del shard actual.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "splitwise.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig implements WebMvcConfigurer {
+
+    private final Environment environment;
+    private final MeterRegistry registry;
+    private final TripShards tripShards;
+
+    public ShardingConfig(Environment environment, MeterRegistry registry, TripShards tripShards) {
+        this.environment = environment;
+        this.registry = registry;
+        this.tripShards = tripShards;
+    }
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shardZeroDataSource(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("shard-0");
+        return pool;
+    }
+
+    /** Pools de los shards 1..n. No son beans: sus métricas hikaricp.* se registran acá. */
+    @Bean
+    public ShardPools shardPools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        Binder binder = Binder.get(environment);
+        List<DataSourceProperties> shards = TripShards.extraShards(environment);
+        for (int i = 0; i < shards.size(); i++) {
+            HikariDataSource pool = shards.get(i).initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind("splitwise.sharding.shards[" + i + "].hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("shard-" + (i + 1));
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            pools.add(pool);
+        }
+        return new ShardPools(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource shardZeroDataSource, ShardPools shardPools) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shardPools.withShardZero(shardZeroDataSource));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /** Migra todos los shards con la configuración de Flyway del shard 0. */
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(HikariDataSource shardZeroDataSource, ShardPools shardPools) {
+        return flyway -> {
+            List<HikariDataSource> shards = shardPools.withShardZero(shardZeroDataSource);
+            for (int shard = 0; shard < shards.size(); shard++) {
+                DataSource dataSource = shards.get(shard);
+                if (shard == 0) {
+                    flyway.migrate();
+                } else {
+                    Flyway.configure().configuration(flyway.getConfiguration()).dataSource(dataSource).load().migrate();
+                }
+                startTripIds(new JdbcTemplate(dataSource), shard);
+            }
+        };
+    }
+
+    /**
+     * Hace que la identidad de trips genere ids del shard: FIRST_ID + shard, de a SLOTS.
+     * Se repite en cada arranque hasta que el shard tenga su primer viaje con id nuevo.
+     */
+    private static void startTripIds(JdbcTemplate jdbc, int shard) {
+        Integer sharded = jdbc.queryForObject("SELECT COUNT(*) FROM trips WHERE id >= ?", Integer.class,
+                TripShards.FIRST_ID);
+        if (sharded == null || sharded == 0) {
+            jdbc.execute("ALTER TABLE trips ALTER COLUMN id SET INCREMENT BY " + TripShards.SLOTS
+                    + " RESTART WITH " + TripShards.firstTripId(shard));
+        }
+    }
+
+    /**
+     * Sin caché de segundo nivel ni de consultas: sus claves son solo el id, y los ids de
+     * personas (y de gastos) se repiten entre shards, así que devolvería la persona de otro
+     * shard. Los ids de viaje no se repiten, pero la consulta cacheada de personas por viaje
+     * resuelve sus filas por esa misma caché.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardedCacheCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new ShardInterceptor(tripShards));
+    }
+
+    /** Pools de los shards adicionales, cerrados junto con el contexto. */
+    public static final class ShardPools implements AutoCloseable {
+
+        private final List<HikariDataSource> pools;
+
+        ShardPools(List<HikariDataSource> pools) {
+            this.pools = pools;
+        }
+
+        List<HikariDataSource> withShardZero(HikariDataSource shardZero) {
+            List<HikariDataSource> all = new ArrayList<>(pools.size() + 1);
+            all.add(shardZero);
+            all.addAll(pools);
+            return all;
+        }
+
+        @Override
+        public void close() {
+            pools.forEach(HikariDataSource::close);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.splitwise.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Mapa de viaje a shard. El shard va codificado en el id del viaje: en cada shard los ids
+ * empiezan en FIRST_ID + shard y avanzan de a SLOTS, así que shard = (id - FIRST_ID) % SLOTS.
+ * Los ids menores que FIRST_ID son de antes del sharding y están en el shard 0.
+ * <p>
+ * No hace falta consultar ningún directorio, y se pueden agregar shards (hasta SLOTS) sin
+ * mover viajes. Como los shards reciben viajes nuevos por turno, el orden por id sigue
+ * siendo aproximadamente el de creación.
+ */
+@Component
+public class TripShards {
+
+    public static final long FIRST_ID = 1L << 40;
+    public static final int SLOTS = 64;
+
+    private final int count;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public TripShards(@Value("${splitwise.sharding.enabled:false}") boolean enabled, Environment environment) {
+        this.count = enabled ? 1 + extraShards(environment).size() : 1;
+        if (count > SLOTS) {
+            throw new IllegalStateException("Como máximo " + SLOTS + " shards; configurados: " + count);
+        }
+    }
+
+    /** Shards adicionales (splitwise.sharding.shards); el shard 0 es spring.datasource. */
+    static List<DataSourceProperties> extraShards(Environment environment) {
+        return Binder.get(environment)
+                .bind("splitwise.sharding.shards", Bindable.listOf(DataSourceProperties.class))
+                .orElse(List.of());
+    }
+
+    public static int shardOf(Long tripId) {
+        return tripId < FIRST_ID ? 0 : (int) ((tripId - FIRST_ID) % SLOTS);
+    }
+
+    /**
+     * true si el shard que codifica el id está configurado. Si no, el viaje no existe
+     * (por ejemplo, un id inventado): no hay base a la que preguntarle.
+     */
+    public boolean hasShard(Long tripId) {
+        return shardOf(tripId) < count;
+    }
+
+    /** Primer id de viaje que genera el shard. */
+    public static long firstTripId(int shard) {
+        return FIRST_ID + shard;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public IntStream all() {
+        return IntStream.range(0, count);
+    }
+
+    /** Shard para un viaje nuevo: por turno. */
+    public int nextShard() {
+        return Math.floorMod(next.getAndIncrement(), count);
+    }
+}
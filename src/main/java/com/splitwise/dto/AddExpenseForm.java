@@ -1,6 +1,7 @@
 package com.splitwise.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -21,6 +22,7 @@ public class AddExpenseForm {
 
     @NotNull(message = "El monto es obligatorio")
     @DecimalMin(value = "0.01", message = "El monto debe ser mayor a 0")
+    @Digits(integer = 17, fraction = 2, message = "El monto admite hasta 2 decimales")
     private BigDecimal amount;
 
     @NotNull(message = "Debe indicar quién pagó")
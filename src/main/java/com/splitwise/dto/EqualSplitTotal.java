@@ -0,0 +1,14 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de gastos con división equitativa compacta agrupados por conjunto de
+ * participantes: lo que consumió cada uno de ellos en esos gastos.
+ */
+public interface EqualSplitTotal {
+
+    String getParticipantIds();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,32 @@
+package com.splitwise.dto;
+
+import com.splitwise.model.Expense;
+
+import java.util.List;
+
+/**
+ * Una página de gastos ordenados por id descendente.
+ * nextBefore = cursor para pedir los gastos más antiguos, o null si no hay más.
+ */
+public class ExpensePage {
+
+    private final List<Expense> items;
+    private final Long nextBefore;
+
+    public ExpensePage(List<Expense> items, Long nextBefore) {
+        this.items = items;
+        this.nextBefore = nextBefore;
+    }
+
+    public List<Expense> getItems() {
+        return items;
+    }
+
+    public Long getNextBefore() {
+        return nextBefore;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
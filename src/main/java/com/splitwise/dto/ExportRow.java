@@ -0,0 +1,71 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila de la exportación: un gasto con la parte de uno de sus participantes.
+ * Se construye directamente en la consulta, sin pasar por entidades. Para un gasto con
+ * división equitativa compacta la consulta trae una sola fila con participantIds y
+ * equalShareAmount, que la exportación expande en una fila por participante.
+ */
+public class ExportRow {
+
+    private final Long expenseId;
+    private final String description;
+    private final BigDecimal amount;
+    private final String paidByName;
+    private final String participantName;
+    private final BigDecimal shareAmount;
+    private final String participantIds;
+    private final BigDecimal equalShareAmount;
+
+    public ExportRow(Long expenseId, String description, BigDecimal amount, String paidByName,
+                     String participantName, BigDecimal shareAmount) {
+        this(expenseId, description, amount, paidByName, participantName, shareAmount, null, null);
+    }
+
+    public ExportRow(Long expenseId, String description, BigDecimal amount, String paidByName,
+                     String participantName, BigDecimal shareAmount, String participantIds,
+                     BigDecimal equalShareAmount) {
+        this.expenseId = expenseId;
+        this.description = description;
+        this.amount = amount;
+        this.paidByName = paidByName;
+        this.participantName = participantName;
+        this.shareAmount = shareAmount;
+        this.participantIds = participantIds;
+        this.equalShareAmount = equalShareAmount;
+    }
+
+    public Long getExpenseId() {
+        return expenseId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getPaidByName() {
+        return paidByName;
+    }
+
+    public String getParticipantName() {
+        return participantName;
+    }
+
+    public BigDecimal getShareAmount() {
+        return shareAmount;
+    }
+
+    public String getParticipantIds() {
+        return participantIds;
+    }
+
+    public BigDecimal getEqualShareAmount() {
+        return equalShareAmount;
+    }
+}
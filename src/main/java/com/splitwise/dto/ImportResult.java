@@ -0,0 +1,27 @@
+package com.splitwise.dto;
+
+/**
+ * Resultado de una importación masiva de gastos: filas insertadas y tiempo empleado.
+ */
+public class ImportResult {
+
+    private final int rows;
+    private final long elapsedMillis;
+
+    public ImportResult(int rows, long elapsedMillis) {
+        this.rows = rows;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? rows * 1000L / elapsedMillis : rows;
+    }
+}
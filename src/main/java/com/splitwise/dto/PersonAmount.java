@@ -0,0 +1,13 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de consultas agregadas: suma de montos agrupada por persona.
+ */
+public interface PersonAmount {
+
+    Long getPersonId();
+
+    BigDecimal getTotal();
+}
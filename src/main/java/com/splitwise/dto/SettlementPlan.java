@@ -0,0 +1,32 @@
+package com.splitwise.dto;
+
+import java.util.List;
+
+/**
+ * Plan para saldar las cuentas: las transferencias y la estrategia que las calculó.
+ * fallback = la estrategia configurada excedió su presupuesto y se usó la greedy.
+ */
+public class SettlementPlan {
+
+    private final List<TransferSuggestion> transfers;
+    private final String strategy;
+    private final boolean fallback;
+
+    public SettlementPlan(List<TransferSuggestion> transfers, String strategy, boolean fallback) {
+        this.transfers = transfers;
+        this.strategy = strategy;
+        this.fallback = fallback;
+    }
+
+    public List<TransferSuggestion> getTransfers() {
+        return transfers;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public boolean isFallback() {
+        return fallback;
+    }
+}
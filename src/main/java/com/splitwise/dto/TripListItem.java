@@ -0,0 +1,20 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección para el listado de viajes: datos del viaje y agregados,
+ * sin cargar las colecciones de personas ni de gastos.
+ */
+public interface TripListItem {
+
+    Long getId();
+
+    String getName();
+
+    Long getPeopleCount();
+
+    Long getExpenseCount();
+
+    BigDecimal getTotal();
+}
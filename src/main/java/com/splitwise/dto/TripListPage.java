@@ -0,0 +1,30 @@
+package com.splitwise.dto;
+
+import java.util.List;
+
+/**
+ * Una página del listado de viajes ordenado por id descendente.
+ * nextBefore = cursor para pedir los viajes más antiguos, o null si no hay más.
+ */
+public class TripListPage {
+
+    private final List<TripListItem> items;
+    private final Long nextBefore;
+
+    public TripListPage(List<TripListItem> items, Long nextBefore) {
+        this.items = items;
+        this.nextBefore = nextBefore;
+    }
+
+    public List<TripListItem> getItems() {
+        return items;
+    }
+
+    public Long getNextBefore() {
+        return nextBefore;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,11 @@
+package com.splitwise.dto;
+
+/**
+ * Proyección de consultas agregadas: cantidad de personas agrupada por viaje.
+ */
+public interface TripPeopleCount {
+
+    Long getTripId();
+
+    long getPeople();
+}
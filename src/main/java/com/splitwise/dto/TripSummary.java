@@ -0,0 +1,38 @@
+package com.splitwise.dto;
+
+import java.util.List;
+
+/**
+ * Resumen de saldos y plan de transferencias de un viaje, calculados para una versión del viaje.
+ * computedAt = momento del cálculo (epoch millis), para informar qué tan reciente es.
+ */
+public class TripSummary {
+
+    private final List<PersonSummaryRow> rows;
+    private final SettlementPlan settlement;
+    private final long version;
+    private final long computedAt;
+
+    public TripSummary(List<PersonSummaryRow> rows, SettlementPlan settlement, long version, long computedAt) {
+        this.rows = rows;
+        this.settlement = settlement;
+        this.version = version;
+        this.computedAt = computedAt;
+    }
+
+    public List<PersonSummaryRow> getRows() {
+        return rows;
+    }
+
+    public SettlementPlan getSettlement() {
+        return settlement;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getComputedAt() {
+        return computedAt;
+    }
+}
@@ -0,0 +1,42 @@
+package com.splitwise.journal;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/** Sin journal: la base es la única persistencia. */
+@Component
+@Profile("!journal")
+public class DisabledJournal implements MutationJournal {
+
+    @Override
+    public void tripCreated(Long tripId, String name) {
+    }
+
+    @Override
+    public void tripRenamed(Long tripId, String name) {
+    }
+
+    @Override
+    public void tripDeleted(Long tripId) {
+    }
+
+    @Override
+    public void personAdded(Long tripId, Long personId, String name) {
+    }
+
+    @Override
+    public void personRenamed(Long tripId, Long personId, String name) {
+    }
+
+    @Override
+    public void personDeleted(Long tripId, Long personId) {
+    }
+
+    @Override
+    public void expenseAdded(Long tripId, Long expenseId, String description, BigDecimal amount, Long payerId,
+                             Collection<Long> participantIds, BigDecimal shareAmount) {
+    }
+}
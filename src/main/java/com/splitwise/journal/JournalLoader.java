@@ -0,0 +1,142 @@
+package com.splitwise.journal;
+
+import com.splitwise.model.Expense;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Pasa el estado del journal a la base (al arrancar) y la base a registros (para un snapshot),
+ * con JDBC directo: inserciones en batch con los ids originales, sin pasar por JPA.
+ */
+final class JournalLoader {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbc;
+
+    JournalLoader(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    boolean isEmpty() {
+        Integer trips = jdbc.queryForObject("SELECT COUNT(*) FROM trips", Integer.class);
+        return trips == null || trips == 0;
+    }
+
+    /**
+     * Inserta viajes, personas, gastos y el libro de saldos (calculado acá mismo a partir de
+     * los gastos), y deja identidades y secuencias por encima de los ids cargados.
+     */
+    void load(JournalState state) {
+        List<Object[]> trips = new ArrayList<>();
+        List<Object[]> people = new ArrayList<>();
+        List<Object[]> expenses = new ArrayList<>();
+        List<Object[]> shares = new ArrayList<>();
+        List<Object[]> ledger = new ArrayList<>();
+        long maxTrip = 0, maxPerson = 0, maxExpense = 0, shareId = 0;
+        // Versión de los viajes cargados (ver TripVersions): la hora de carga, mayor que
+        // cualquier versión que hayan tenido antes de reiniciar.
+        long loadedAt = System.currentTimeMillis();
+
+        for (Map.Entry<Long, JournalState.TripData> tripEntry : state.trips.entrySet()) {
+            long tripId = tripEntry.getKey();
+            JournalState.TripData trip = tripEntry.getValue();
+            trips.add(new Object[]{tripId, trip.name, loadedAt});
+            maxTrip = Math.max(maxTrip, tripId);
+
+            Map<Long, BigDecimal> paid = new HashMap<>();
+            Map<Long, BigDecimal> consumed = new HashMap<>();
+            for (Map.Entry<Long, String> person : trip.people.entrySet()) {
+                people.add(new Object[]{person.getKey(), person.getValue(), tripId});
+                maxPerson = Math.max(maxPerson, person.getKey());
+            }
+            for (Map.Entry<Long, JournalState.ExpenseData> expenseEntry : trip.expenses.entrySet()) {
+                long expenseId = expenseEntry.getKey();
+                JournalState.ExpenseData expense = expenseEntry.getValue();
+                if (!trip.people.containsKey(expense.payerId)) continue;
+                List<Long> participants = Arrays.stream(expense.participantIds)
+                        .filter(trip.people::containsKey).boxed().toList();
+                String encoded = Expense.encodeParticipants(participants);
+                boolean compact = encoded.length() <= Expense.MAX_PARTICIPANT_IDS_LENGTH;
+                expenses.add(new Object[]{expenseId, expense.description, expense.amount, expense.payerId, tripId,
+                        compact ? encoded : null, compact ? expense.shareAmount : null});
+                if (!compact) {
+                    for (Long participant : participants) {
+                        shares.add(new Object[]{++shareId, expenseId, participant, expense.shareAmount});
+                    }
+                }
+                maxExpense = Math.max(maxExpense, expenseId);
+                paid.merge(expense.payerId, expense.amount, BigDecimal::add);
+                for (Long participant : participants) {
+                    consumed.merge(participant, expense.shareAmount, BigDecimal::add);
+                }
+            }
+            for (Long personId : trip.people.keySet()) {
+                ledger.add(new Object[]{personId, tripId, paid.getOrDefault(personId, BigDecimal.ZERO),
+                        consumed.getOrDefault(personId, BigDecimal.ZERO)});
+            }
+        }
+
+        insert("INSERT INTO trips (id, name, version) VALUES (?, ?, ?)", trips);
+        insert("INSERT INTO persons (id, name, trip_id) VALUES (?, ?, ?)", people);
+        insert("INSERT INTO expenses (id, description, amount, paid_by_id, trip_id, participant_ids, share_amount)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)", expenses);
+        insert("INSERT INTO expense_shares (id, expense_id, person_id, amount) VALUES (?, ?, ?, ?)", shares);
+        insert("INSERT INTO balance_ledger (person_id, trip_id, total_paid, total_consumed) VALUES (?, ?, ?, ?)", ledger);
+
+        jdbc.execute("ALTER TABLE trips ALTER COLUMN id RESTART WITH " + (maxTrip + 1));
+        jdbc.execute("ALTER TABLE persons ALTER COLUMN id RESTART WITH " + (maxPerson + 1));
+        // Hibernate reserva de a 50 (optimizador pooled): el primer valor pedido es el tope del bloque.
+        jdbc.execute("ALTER SEQUENCE expenses_seq RESTART WITH " + (maxExpense + 50));
+        jdbc.execute("ALTER SEQUENCE expense_shares_seq RESTART WITH " + (shareId + 50));
+    }
+
+    /**
+     * Recorre la base y emite registros equivalentes a su contenido: viajes, personas y gastos.
+     * No es una foto consistente (la base puede cambiar mientras se lee); JournalPersistence
+     * lo compensa aplicando encima todo el journal posterior al inicio del snapshot.
+     */
+    void dump(Consumer<byte[]> records) {
+        jdbc.query("SELECT id, name FROM trips",
+                (RowCallbackHandler) row -> records.accept(JournalRecords.tripCreated(row.getLong(1), row.getString(2))));
+        jdbc.query("SELECT id, name, trip_id FROM persons",
+                (RowCallbackHandler) row -> records.accept(JournalRecords.personAdded(row.getLong(3), row.getLong(1), row.getString(2))));
+
+        // Gastos con el reparto en filas de expense_shares (los que no entran en la columna compacta).
+        Map<Long, List<Long>> shareParticipants = new HashMap<>();
+        Map<Long, BigDecimal> shareAmounts = new HashMap<>();
+        jdbc.query("SELECT expense_id, person_id, amount FROM expense_shares", (RowCallbackHandler) row -> {
+            shareParticipants.computeIfAbsent(row.getLong(1), id -> new ArrayList<>()).add(row.getLong(2));
+            shareAmounts.putIfAbsent(row.getLong(1), row.getBigDecimal(3));
+        });
+        jdbc.query("SELECT id, description, amount, paid_by_id, trip_id, participant_ids, share_amount FROM expenses", (RowCallbackHandler) row -> {
+            long expenseId = row.getLong(1);
+            String encoded = row.getString(6);
+            long[] participants;
+            BigDecimal shareAmount;
+            if (encoded != null) {
+                participants = Expense.decodeParticipants(encoded);
+                shareAmount = row.getBigDecimal(7);
+            } else {
+                participants = JournalRecords.toArray(shareParticipants.getOrDefault(expenseId, List.of()));
+                shareAmount = shareAmounts.getOrDefault(expenseId, BigDecimal.ZERO);
+            }
+            records.accept(JournalRecords.expenseAdded(row.getLong(5), expenseId, row.getString(2),
+                    row.getBigDecimal(3), row.getLong(4), participants, shareAmount));
+        });
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.splitwise.journal;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Perfil journal: la base (H2 en memoria) es solo la copia de trabajo; lo que persiste es un
+ * journal append-only en segmentos mapeados en memoria, más snapshots periódicos.
+ * <p>
+ * Al arrancar se lee el último snapshot y el journal posterior, se arma el estado en memoria
+ * y se carga en la base junto con el libro de saldos; recién después arranca el resto de la
+ * aplicación. Los servicios y repositorios no cambian.
+ * <p>
+ * Cada transacción que escribe acumula sus registros y los agrega al journal después del commit.
+ * El lock se toma antes del commit y se suelta al terminar, así el orden del journal es el
+ * orden de los commits. Con sync=true cada commit espera a que los registros estén en disco;
+ * si no, quedan en la memoria mapeada (sobreviven a una caída del proceso, no del sistema).
+ * <p>
+ * Cada snapshot-every registros se empieza un segmento nuevo y en segundo plano se vuelca la
+ * base a un snapshot de ese segmento; después se borran los segmentos y snapshots anteriores.
+ * El volcado no frena las escrituras, así que puede incluir cambios posteriores al corte. No
+ * importa: al recuperar se aplica encima todo el journal desde el corte, y como cada registro
+ * fija un estado, aplicar de nuevo un cambio ya incluido da el mismo resultado.
+ */
+@Component
+@Profile("journal")
+@DependsOn("flywayInitializer")
+public class JournalPersistence implements MutationJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalPersistence.class);
+
+    private final Path dir;
+    private final boolean sync;
+    private final long snapshotEvery;
+    private final JournalLoader loader;
+    private final MappedJournal journal;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private final ExecutorService snapshots;
+    private long sinceSnapshot;
+
+    public JournalPersistence(DataSource dataSource,
+                              @Value("${splitwise.journal.dir:./data/journal}") String dir,
+                              @Value("${splitwise.journal.segment-size-mb:64}") int segmentSizeMb,
+                              @Value("${splitwise.journal.sync:false}") boolean sync,
+                              @Value("${splitwise.journal.snapshot-every:100000}") long snapshotEvery,
+                              @Value("${splitwise.sharding.enabled:false}") boolean sharding) {
+        if (sharding) {
+            throw new IllegalStateException("El perfil journal no se combina con sharding.");
+        }
+        this.dir = Path.of(dir);
+        this.sync = sync;
+        this.snapshotEvery = snapshotEvery;
+        this.loader = new JournalLoader(new JdbcTemplate(dataSource));
+        this.journal = new MappedJournal(this.dir, segmentSizeMb << 20);
+        this.snapshots = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        recover();
+    }
+
+    private void recover() {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!loader.isEmpty()) {
+            throw new IllegalStateException("El perfil journal necesita una base vacía (H2 en memoria): la carga sale del journal.");
+        }
+        JournalState state = new JournalState();
+        long from = JournalSnapshots.latest(dir).orElse(0L);
+        if (from > 0) {
+            JournalSnapshots.read(JournalSnapshots.path(dir, from), record -> JournalRecords.apply(record, state));
+        }
+        long last = from;
+        int end = 0;
+        for (long segment : MappedJournal.segments(dir)) {
+            if (segment < from) continue;
+            end = MappedJournal.read(MappedJournal.segmentPath(dir, segment), record -> {
+                JournalRecords.apply(record, state);
+                state.records++;
+            });
+            last = segment;
+        }
+        loader.load(state);
+        journal.open(Math.max(last, 1), end);
+        sinceSnapshot = state.records;
+        log.info("Journal: {} viajes recuperados ({} registros después del snapshot {}) en {} ms",
+                state.trips.size(), state.records, from, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void tripCreated(Long tripId, String name) {
+        record(JournalRecords.tripCreated(tripId, name));
+    }
+
+    @Override
+    public void tripRenamed(Long tripId, String name) {
+        record(JournalRecords.tripRenamed(tripId, name));
+    }
+
+    @Override
+    public void tripDeleted(Long tripId) {
+        record(JournalRecords.tripDeleted(tripId));
+    }
+
+    @Override
+    public void personAdded(Long tripId, Long personId, String name) {
+        record(JournalRecords.personAdded(tripId, personId, name));
+    }
+
+    @Override
+    public void personRenamed(Long tripId, Long personId, String name) {
+        record(JournalRecords.personRenamed(tripId, personId, name));
+    }
+
+    @Override
+    public void personDeleted(Long tripId, Long personId) {
+        record(JournalRecords.personDeleted(tripId, personId));
+    }
+
+    @Override
+    public void expenseAdded(Long tripId, Long expenseId, String description, BigDecimal amount, Long payerId,
+                             Collection<Long> participantIds, BigDecimal shareAmount) {
+        record(JournalRecords.expenseAdded(tripId, expenseId, description, amount, payerId,
+                JournalRecords.toArray(participantIds), shareAmount));
+    }
+
+    private void record(byte[] record) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lock.lock();
+            try {
+                append(List.of(record));
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        PendingRecords pending = (PendingRecords) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingRecords();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.records.add(record);
+    }
+
+    /** Con el lock tomado. */
+    private void append(List<byte[]> records) {
+        for (byte[] record : records) {
+            journal.append(record);
+        }
+        if (sync) {
+            journal.force();
+        }
+        sinceSnapshot += records.size();
+        if (sinceSnapshot >= snapshotEvery && snapshotRunning.compareAndSet(false, true)) {
+            long segment = journal.roll();
+            sinceSnapshot = 0;
+            snapshots.execute(() -> snapshot(segment));
+        }
+    }
+
+    private void snapshot(long segment) {
+        long start = System.nanoTime();
+        try {
+            JournalSnapshots.write(dir, segment, loader::dump);
+            JournalSnapshots.deleteOthers(dir, segment);
+            lock.lock();
+            try {
+                journal.deleteBefore(segment);
+            } finally {
+                lock.unlock();
+            }
+            log.info("Journal: snapshot {} en {} ms", segment, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo escribir el snapshot {} del journal", segment, e);
+        } finally {
+            snapshotRunning.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshots.shutdown();
+        lock.lock();
+        try {
+            journal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Registros de una transacción, que se agregan al journal si hace commit. */
+    private final class PendingRecords implements TransactionSynchronization {
+
+        private final List<byte[]> records = new ArrayList<>();
+        private boolean locked;
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(JournalPersistence.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(JournalPersistence.this, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            lock.lock();
+            locked = true;
+        }
+
+        @Override
+        public void afterCommit() {
+            append(records);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(JournalPersistence.this);
+            if (locked) {
+                locked = false;
+                lock.unlock();
+            }
+        }
+    }
+}
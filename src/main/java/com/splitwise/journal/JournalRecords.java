@@ -0,0 +1,136 @@
+package com.splitwise.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Codificación de los registros del journal (y de los snapshots, que usan los mismos):
+ * un byte de tipo y los campos con DataOutput. Todos los registros fijan un estado
+ * ("el viaje 7 se llama X", "el gasto 12 es ..."), así que aplicarlos dos veces da lo mismo.
+ */
+final class JournalRecords {
+
+    static final byte TRIP_CREATED = 1;
+    static final byte TRIP_RENAMED = 2;
+    static final byte TRIP_DELETED = 3;
+    static final byte PERSON_ADDED = 4;
+    static final byte PERSON_RENAMED = 5;
+    static final byte PERSON_DELETED = 6;
+    static final byte EXPENSE_ADDED = 7;
+
+    private JournalRecords() {
+    }
+
+    static byte[] tripCreated(long tripId, String name) {
+        return encode(TRIP_CREATED, out -> {
+            out.writeLong(tripId);
+            out.writeUTF(name);
+        });
+    }
+
+    static byte[] tripRenamed(long tripId, String name) {
+        return encode(TRIP_RENAMED, out -> {
+            out.writeLong(tripId);
+            out.writeUTF(name);
+        });
+    }
+
+    static byte[] tripDeleted(long tripId) {
+        return encode(TRIP_DELETED, out -> out.writeLong(tripId));
+    }
+
+    static byte[] personAdded(long tripId, long personId, String name) {
+        return encode(PERSON_ADDED, out -> {
+            out.writeLong(tripId);
+            out.writeLong(personId);
+            out.writeUTF(name);
+        });
+    }
+
+    static byte[] personRenamed(long tripId, long personId, String name) {
+        return encode(PERSON_RENAMED, out -> {
+            out.writeLong(tripId);
+            out.writeLong(personId);
+            out.writeUTF(name);
+        });
+    }
+
+    static byte[] personDeleted(long tripId, long personId) {
+        return encode(PERSON_DELETED, out -> {
+            out.writeLong(tripId);
+            out.writeLong(personId);
+        });
+    }
+
+    static byte[] expenseAdded(long tripId, long expenseId, String description, BigDecimal amount, long payerId,
+                               long[] participantIds, BigDecimal shareAmount) {
+        return encode(EXPENSE_ADDED, out -> {
+            out.writeLong(tripId);
+            out.writeLong(expenseId);
+            out.writeUTF(description);
+            out.writeUTF(amount.toPlainString());
+            out.writeLong(payerId);
+            out.writeInt(participantIds.length);
+            for (long id : participantIds) {
+                out.writeLong(id);
+            }
+            out.writeUTF(shareAmount.toPlainString());
+        });
+    }
+
+    static long[] toArray(Collection<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /** Aplica un registro al estado. */
+    static void apply(byte[] record, JournalState state) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            byte type = in.readByte();
+            switch (type) {
+                case TRIP_CREATED -> state.tripCreated(in.readLong(), in.readUTF());
+                case TRIP_RENAMED -> state.tripRenamed(in.readLong(), in.readUTF());
+                case TRIP_DELETED -> state.tripDeleted(in.readLong());
+                case PERSON_ADDED -> state.personAdded(in.readLong(), in.readLong(), in.readUTF());
+                case PERSON_RENAMED -> state.personRenamed(in.readLong(), in.readLong(), in.readUTF());
+                case PERSON_DELETED -> state.personDeleted(in.readLong(), in.readLong());
+                case EXPENSE_ADDED -> {
+                    long tripId = in.readLong();
+                    long expenseId = in.readLong();
+                    String description = in.readUTF();
+                    BigDecimal amount = new BigDecimal(in.readUTF());
+                    long payerId = in.readLong();
+                    long[] participantIds = new long[in.readInt()];
+                    for (int i = 0; i < participantIds.length; i++) {
+                        participantIds[i] = in.readLong();
+                    }
+                    BigDecimal shareAmount = new BigDecimal(in.readUTF());
+                    state.expenseAdded(tripId, expenseId, description, amount, payerId, participantIds, shareAmount);
+                }
+                default -> throw new IllegalStateException("Tipo de registro desconocido en el journal: " + type);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Fields {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(byte type, Fields fields) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            fields.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.splitwise.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Snapshots: snapshot-N.snap tiene el estado completo hasta el comienzo del segmento N, con
+ * los mismos registros y el mismo encuadre que el journal. Se escribe en un .tmp y se renombra
+ * al terminar, así que un .snap siempre está completo.
+ */
+final class JournalSnapshots {
+
+    private JournalSnapshots() {
+    }
+
+    static Path path(Path dir, long segment) {
+        return dir.resolve(String.format("snapshot-%016d.snap", segment));
+    }
+
+    /** Segmento desde el que hay que seguir leyendo el journal según el último snapshot. */
+    static Optional<Long> latest(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("snapshot-") && name.endsWith(".snap"))
+                    .map(name -> Long.parseLong(name.substring("snapshot-".length(), name.length() - ".snap".length())))
+                    .max(Long::compare);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void read(Path file, Consumer<byte[]> records) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                int crc = in.readInt();
+                byte[] record = new byte[length];
+                in.readFully(record);
+                if (MappedJournal.crc(record) != crc) {
+                    throw new IllegalStateException("Snapshot dañado: " + file);
+                }
+                records.accept(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Escribe el snapshot con lo que emita el productor y lo deja en disco antes de publicarlo. */
+    static void write(Path dir, long segment, Consumer<Consumer<byte[]>> producer) {
+        Path target = path(dir, segment);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            producer.accept(record -> {
+                try {
+                    out.writeInt(record.length);
+                    out.writeInt(MappedJournal.crc(record));
+                    out.write(record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void deleteOthers(Path dir, long segment) {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("snapshot-") && (name.endsWith(".snap") || name.endsWith(".tmp"))
+                        && !file.equals(path(dir, segment))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.splitwise.journal;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estado que resulta de aplicar snapshot y journal, en memoria, antes de cargarlo en la base.
+ * Los registros de un viaje que ya no está se ignoran: su borrado está más adelante en el journal.
+ */
+final class JournalState {
+
+    static final class TripData {
+        String name;
+        final Map<Long, String> people = new LinkedHashMap<>();
+        final Map<Long, ExpenseData> expenses = new LinkedHashMap<>();
+
+        TripData(String name) {
+            this.name = name;
+        }
+    }
+
+    static final class ExpenseData {
+        final String description;
+        final BigDecimal amount;
+        final long payerId;
+        long[] participantIds;
+        final BigDecimal shareAmount;
+
+        ExpenseData(String description, BigDecimal amount, long payerId, long[] participantIds, BigDecimal shareAmount) {
+            this.description = description;
+            this.amount = amount;
+            this.payerId = payerId;
+            this.participantIds = participantIds;
+            this.shareAmount = shareAmount;
+        }
+    }
+
+    final Map<Long, TripData> trips = new LinkedHashMap<>();
+    long records;
+
+    void tripCreated(long tripId, String name) {
+        TripData trip = trips.get(tripId);
+        if (trip == null) {
+            trips.put(tripId, new TripData(name));
+        } else {
+            trip.name = name;
+        }
+    }
+
+    void tripRenamed(long tripId, String name) {
+        TripData trip = trips.get(tripId);
+        if (trip != null) trip.name = name;
+    }
+
+    void tripDeleted(long tripId) {
+        trips.remove(tripId);
+    }
+
+    void personAdded(long tripId, long personId, String name) {
+        TripData trip = trips.get(tripId);
+        if (trip != null) trip.people.put(personId, name);
+    }
+
+    void personRenamed(long tripId, long personId, String name) {
+        TripData trip = trips.get(tripId);
+        if (trip != null && trip.people.containsKey(personId)) trip.people.put(personId, name);
+    }
+
+    /** Como TripService.deletePerson: se van sus gastos y su participación en los demás. */
+    void personDeleted(long tripId, long personId) {
+        TripData trip = trips.get(tripId);
+        if (trip == null) return;
+        trip.people.remove(personId);
+        trip.expenses.values().removeIf(expense -> expense.payerId == personId);
+        for (ExpenseData expense : trip.expenses.values()) {
+            expense.participantIds = Arrays.stream(expense.participantIds).filter(id -> id != personId).toArray();
+        }
+    }
+
+    void expenseAdded(long tripId, long expenseId, String description, BigDecimal amount, long payerId,
+                      long[] participantIds, BigDecimal shareAmount) {
+        TripData trip = trips.get(tripId);
+        if (trip != null) {
+            trip.expenses.put(expenseId, new ExpenseData(description, amount, payerId, participantIds, shareAmount));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.splitwise.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Segmentos del journal: archivos de tamaño fijo mapeados en memoria (journal-N.seg), donde
+ * cada registro es [largo int][crc32 int][datos]. Un largo 0 marca el final (el archivo
+ * nuevo viene en ceros). Al leer se corta en el primer registro incompleto o con CRC
+ * inválido: es una escritura que no llegó a terminar.
+ * <p>
+ * No es thread-safe: JournalPersistence lo usa bajo su lock.
+ */
+final class MappedJournal implements AutoCloseable {
+
+    static final int HEADER = 8;
+
+    private final Path dir;
+    private final int segmentSize;
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    MappedJournal(Path dir, int segmentSize) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+    }
+
+    static Path segmentPath(Path dir, long index) {
+        return dir.resolve(String.format("journal-%016d.seg", index));
+    }
+
+    /** Índices de los segmentos existentes, en orden. */
+    static List<Long> segments(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("journal-") && name.endsWith(".seg"))
+                    .map(name -> Long.parseLong(name.substring("journal-".length(), name.length() - ".seg".length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Pasa cada registro válido del segmento al consumidor; devuelve la posición donde terminan. */
+    static int read(Path file, Consumer<byte[]> records) {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            int position = 0;
+            while (position + HEADER <= data.limit()) {
+                int length = data.getInt(position);
+                if (length <= 0 || position + HEADER + length > data.limit()) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                data.get(position + HEADER, record);
+                if (crc(record) != data.getInt(position + 4)) {
+                    break;
+                }
+                records.accept(record);
+                position += HEADER + length;
+            }
+            return position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Abre el segmento para seguir escribiendo en position (lo que haya después se descarta). */
+    void open(long index, int position) {
+        map(index);
+        int end = position;
+        while (end + HEADER <= buffer.capacity() && buffer.getInt(end) != 0) {
+            // Restos de una escritura cortada: se limpian para que no confundan a la próxima lectura.
+            int length = Math.min(Math.max(buffer.getInt(end), 0), buffer.capacity() - end - HEADER);
+            for (int i = end; i < end + HEADER + length; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            end += HEADER + length;
+        }
+        buffer.position(position);
+    }
+
+    long segment() {
+        return segment;
+    }
+
+    void append(byte[] record) {
+        if (HEADER + record.length > segmentSize) {
+            throw new IllegalArgumentException("Registro de " + record.length + " bytes: no entra en un segmento del journal.");
+        }
+        if (buffer.remaining() < HEADER + record.length) {
+            roll();
+        }
+        int start = buffer.position();
+        buffer.position(start + HEADER);
+        buffer.put(record);
+        buffer.putInt(start + 4, crc(record));
+        // El largo al final: hasta acá un lector ve el registro como inexistente.
+        buffer.putInt(start, record.length);
+    }
+
+    /** Lleva a disco lo escrito en el segmento actual. */
+    void force() {
+        buffer.force();
+    }
+
+    /** Cierra el segmento actual y empieza uno nuevo; devuelve su índice. */
+    long roll() {
+        force();
+        closeChannel();
+        map(segment + 1);
+        return segment;
+    }
+
+    void deleteBefore(long index) {
+        for (long old : segments(dir)) {
+            if (old < index) {
+                try {
+                    Files.deleteIfExists(segmentPath(dir, old));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            force();
+        }
+        closeChannel();
+    }
+
+    private void map(long index) {
+        try {
+            channel = FileChannel.open(segmentPath(dir, index),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, channel.size()));
+            segment = index;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static int crc(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+}
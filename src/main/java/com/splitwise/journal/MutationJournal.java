@@ -0,0 +1,28 @@
+package com.splitwise.journal;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Registro de las escrituras sobre viajes, personas y gastos. Los servicios lo llaman
+ * después de cada escritura; si hay transacción, lo anotado se guarda recién cuando hace commit.
+ * Fuera del perfil journal no hace nada (DisabledJournal).
+ */
+public interface MutationJournal {
+
+    void tripCreated(Long tripId, String name);
+
+    void tripRenamed(Long tripId, String name);
+
+    void tripDeleted(Long tripId);
+
+    void personAdded(Long tripId, Long personId, String name);
+
+    void personRenamed(Long tripId, Long personId, String name);
+
+    /** Incluye lo que el borrado arrastra: gastos que pagó y su participación en los demás. */
+    void personDeleted(Long tripId, Long personId);
+
+    void expenseAdded(Long tripId, Long expenseId, String description, BigDecimal amount, Long payerId,
+                      Collection<Long> participantIds, BigDecimal shareAmount);
+}
@@ -0,0 +1,59 @@
+package com.splitwise.metrics;
+
+import com.splitwise.service.TripSummaryCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Instrumentación: conteo de SQL y entidades por request, y métricas de la caché de resúmenes.
+ * Los timers por endpoint (http.server.requests), las estadísticas de Hibernate
+ * (hibernate.*) y el pool de Hikari (hikaricp.*) los registra Spring Boot.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final QueryCounter queryCounter = new QueryCounter();
+    private final MeterRegistry registry;
+
+    public MetricsConfig(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+            properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(queryCounter));
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new RequestQueryMetrics(queryCounter, registry));
+    }
+
+    @Bean
+    public MeterBinder tripSummaryCacheMetrics(TripSummaryCache cache) {
+        return meters -> {
+            FunctionCounter.builder("splitwise.summary.cache.hits", cache, TripSummaryCache::getHits)
+                    .register(meters);
+            FunctionCounter.builder("splitwise.summary.cache.misses", cache, TripSummaryCache::getMisses)
+                    .register(meters);
+            FunctionCounter.builder("splitwise.summary.cache.evictions", cache, TripSummaryCache::getEvictions)
+                    .register(meters);
+            Gauge.builder("splitwise.summary.cache.size", cache, TripSummaryCache::size)
+                    .register(meters);
+        };
+    }
+}
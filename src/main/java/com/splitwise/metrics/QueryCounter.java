@@ -0,0 +1,57 @@
+package com.splitwise.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Cuenta, por hilo, las sentencias SQL que prepara Hibernate y las entidades que carga.
+ * Se registra en Hibernate como StatementInspector y como listener de POST_LOAD;
+ * RequestQueryMetrics lo pone en cero al empezar cada request y publica los totales al terminar.
+ */
+public class QueryCounter implements StatementInspector, PostLoadEventListener, Integrator {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNTS.get()[0]++;
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        COUNTS.get()[1]++;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    public void reset() {
+        long[] counts = COUNTS.get();
+        counts[0] = 0;
+        counts[1] = 0;
+    }
+
+    public long statements() {
+        return COUNTS.get()[0];
+    }
+
+    public long entitiesLoaded() {
+        return COUNTS.get()[1];
+    }
+}
@@ -0,0 +1,48 @@
+package com.splitwise.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Publica por endpoint (método + patrón de URI) cuántas sentencias SQL ejecutó y cuántas
+ * entidades cargó cada request: splitwise.request.sql.statements y splitwise.request.entities.loaded.
+ * Un salto en estos valores para un mismo endpoint delata un N+1.
+ */
+public class RequestQueryMetrics implements HandlerInterceptor {
+
+    private final QueryCounter counter;
+    private final MeterRegistry registry;
+
+    public RequestQueryMetrics(QueryCounter counter, MeterRegistry registry) {
+        this.counter = counter;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        counter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        summary("splitwise.request.sql.statements", "Sentencias SQL por request", request.getMethod(), uri)
+                .record(counter.statements());
+        summary("splitwise.request.entities.loaded", "Entidades cargadas por request", request.getMethod(), uri)
+                .record(counter.entitiesLoaded());
+    }
+
+    private DistributionSummary summary(String name, String description, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry);
+    }
+}
@@ -3,18 +3,29 @@ package com.splitwise.model;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
- * Gasto registrado en un viaje. El monto se reparte entre las personas
- * mediante ExpenseShare (división equitativa).
+ * Gasto registrado en un viaje. El monto se reparte entre las personas de dos formas:
+ * <ul>
+ *   <li>División equitativa compacta: participantIds (",id,id,...,") y shareAmount en el
+ *   propio gasto, sin filas en expense_shares.</li>
+ *   <li>ExpenseShare: una fila por participante, para repartos no uniformes y gastos
+ *   anteriores a la forma compacta.</li>
+ * </ul>
  */
 @Entity
 @Table(name = "expenses")
 public class Expense {
 
+    /** Largo máximo de participantIds (columna VARCHAR). */
+    public static final int MAX_PARTICIPANT_IDS_LENGTH = 8000;
+
+    /** Secuencia con asignación en bloques: permite que Hibernate agrupe los INSERT en batch. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -37,6 +48,14 @@ public class Expense {
     @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ExpenseShare> shares = new ArrayList<>();
 
+    /** Participantes de la división equitativa, delimitados por comas en ambos extremos (",3,8,15,"). */
+    @Column(name = "participant_ids", length = MAX_PARTICIPANT_IDS_LENGTH)
+    private String participantIds;
+
+    /** Parte de cada participante en la división equitativa; null si se usan ExpenseShare. */
+    @Column(name = "share_amount", precision = 19, scale = 2)
+    private BigDecimal shareAmount;
+
     public Expense() {
     }
 
@@ -87,4 +106,55 @@ public class Expense {
     public void setShares(List<ExpenseShare> shares) {
         this.shares = shares;
     }
+
+    public String getParticipantIds() {
+        return participantIds;
+    }
+
+    public BigDecimal getShareAmount() {
+        return shareAmount;
+    }
+
+    /**
+     * Guarda la división equitativa en el propio gasto. Devuelve false (sin cambiar nada)
+     * si la lista codificada no entra en la columna; en ese caso hay que usar ExpenseShare.
+     */
+    public boolean setEqualSplit(Collection<Long> personIds, BigDecimal shareAmount) {
+        String encoded = encodeParticipants(personIds);
+        if (encoded.length() > MAX_PARTICIPANT_IDS_LENGTH) {
+            return false;
+        }
+        this.participantIds = encoded;
+        this.shareAmount = shareAmount;
+        return true;
+    }
+
+    public static String encodeParticipants(Collection<Long> personIds) {
+        StringBuilder encoded = new StringBuilder(personIds.size() * 6 + 1).append(',');
+        for (Long id : personIds) {
+            encoded.append(id).append(',');
+        }
+        return encoded.toString();
+    }
+
+    /** Ids de una lista codificada con encodeParticipants. */
+    public static long[] decodeParticipants(String encoded) {
+        int count = 0;
+        for (int i = 1; i < encoded.length(); i++) {
+            if (encoded.charAt(i) == ',') count++;
+        }
+        long[] ids = new long[count];
+        int n = 0;
+        long value = 0;
+        for (int i = 1; i < encoded.length(); i++) {
+            char c = encoded.charAt(i);
+            if (c == ',') {
+                ids[n++] = value;
+                value = 0;
+            } else {
+                value = value * 10 + (c - '0');
+            }
+        }
+        return ids;
+    }
 }
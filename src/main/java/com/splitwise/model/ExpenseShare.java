@@ -11,8 +11,10 @@ import java.math.BigDecimal;
 @Table(name = "expense_shares")
 public class ExpenseShare {
 
+    /** Secuencia con asignación en bloques: permite que Hibernate agrupe los INSERT en batch. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_shares_seq")
+    @SequenceGenerator(name = "expense_shares_seq", sequenceName = "expense_shares_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
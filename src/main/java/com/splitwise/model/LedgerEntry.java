@@ -0,0 +1,82 @@
+package com.splitwise.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Saldo acumulado de una persona en su viaje (total pagado y total consumido).
+ * Se mantiene de forma incremental al registrar gastos y eliminar personas,
+ * así el resumen no tiene que recorrer todos los gastos.
+ */
+@Entity
+@Table(name = "balance_ledger")
+public class LedgerEntry {
+
+    @Id
+    @Column(name = "person_id")
+    private Long personId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "person_id")
+    private Person person;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "trip_id", nullable = false)
+    private Trip trip;
+
+    @Column(name = "total_paid", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    @Column(name = "total_consumed", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalConsumed = BigDecimal.ZERO;
+
+    public LedgerEntry() {
+    }
+
+    public LedgerEntry(Person person, Trip trip) {
+        this.person = person;
+        this.trip = trip;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public Person getPerson() {
+        return person;
+    }
+
+    public void setPerson(Person person) {
+        this.person = person;
+    }
+
+    public Trip getTrip() {
+        return trip;
+    }
+
+    public void setTrip(Trip trip) {
+        this.trip = trip;
+    }
+
+    public BigDecimal getTotalPaid() {
+        return totalPaid;
+    }
+
+    public void setTotalPaid(BigDecimal totalPaid) {
+        this.totalPaid = totalPaid;
+    }
+
+    public BigDecimal getTotalConsumed() {
+        return totalConsumed;
+    }
+
+    public void setTotalConsumed(BigDecimal totalConsumed) {
+        this.totalConsumed = totalConsumed;
+    }
+
+    /** Saldo = totalPagado - totalConsumido → positivo = le deben, negativo = debe. */
+    public BigDecimal getBalance() {
+        return totalPaid.subtract(totalConsumed);
+    }
+}
@@ -1,13 +1,18 @@
 package com.splitwise.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Persona que participa en un viaje. Puede pagar gastos y ser beneficiaria.
+ * Va en la caché de segundo nivel, como Trip.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "persons")
 public class Person {
 
@@ -1,14 +1,19 @@
 package com.splitwise.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotBlank;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Representa un viaje. Agrupa personas y gastos.
+ * Va en la caché de segundo nivel (región en ehcache.xml): se busca por id en casi cada request.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "trips")
 public class Trip {
 
@@ -1,15 +1,72 @@
 package com.splitwise.repository;
 
+import com.splitwise.dto.EqualSplitTotal;
+import com.splitwise.dto.ExportRow;
+import com.splitwise.dto.PersonAmount;
 import com.splitwise.model.Expense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
-    @Query("SELECT e FROM Expense e JOIN FETCH e.paidBy WHERE e.trip.id = :tripId ORDER BY e.id DESC")
-    List<Expense> findByTripIdWithPayer(Long tripId);
+    /**
+     * Página de gastos del viaje anteriores al cursor (keyset por id descendente):
+     * el costo no depende de cuántos gastos más antiguos haya.
+     */
+    @Query("SELECT e FROM Expense e JOIN FETCH e.paidBy " +
+            "WHERE e.trip.id = :tripId AND e.id < :before ORDER BY e.id DESC")
+    List<Expense> findPageByTripId(Long tripId, Long before, Limit limit);
 
-    void deleteByPaidById(Long paidById);
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.paidBy.id = :paidById")
+    void deleteByPaidByIdInBulk(Long paidById);
+
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.trip.id = :tripId")
+    void deleteByTripIdInBulk(Long tripId);
+
+    /**
+     * Quita un participante de las divisiones equitativas compactas del viaje.
+     * token = el id entre comas (",15,").
+     */
+    @Modifying
+    @Query("UPDATE Expense e SET e.participantIds = REPLACE(e.participantIds, :token, ',') " +
+            "WHERE e.trip.id = :tripId AND e.participantIds LIKE CONCAT('%', :token, '%')")
+    void removeParticipantInBulk(Long tripId, String token);
+
+    /** Total pagado por persona en el viaje (SUM(amount) agrupado por paid_by_id). */
+    @Query("SELECT e.paidBy.id AS personId, SUM(e.amount) AS total FROM Expense e " +
+            "WHERE e.trip.id = :tripId GROUP BY e.paidBy.id")
+    List<PersonAmount> sumPaidByPerson(Long tripId);
+
+    /**
+     * Consumo de las divisiones equitativas compactas del viaje: SUM(share_amount)
+     * agrupado por conjunto de participantes (los gastos entre las mismas personas se juntan).
+     */
+    @Query("SELECT e.participantIds AS participantIds, SUM(e.shareAmount) AS total FROM Expense e " +
+            "WHERE e.trip.id = :tripId AND e.participantIds IS NOT NULL GROUP BY e.participantIds")
+    List<EqualSplitTotal> sumEqualSplitsByParticipants(Long tripId);
+
+    /**
+     * Gastos del viaje con cada participante, como filas planas y en streaming
+     * (cursor con fetch size, sin entidades en el contexto de persistencia).
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.splitwise.dto.ExportRow(e.id, e.description, e.amount, p.name, sp.name, s.amount, " +
+            "e.participantIds, e.shareAmount) " +
+            "FROM Expense e JOIN e.paidBy p LEFT JOIN e.shares s LEFT JOIN s.person sp " +
+            "WHERE e.trip.id = :tripId ORDER BY e.id, s.id")
+    Stream<ExportRow> streamExportRows(Long tripId);
 }
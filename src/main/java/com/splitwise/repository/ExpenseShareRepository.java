@@ -1,7 +1,10 @@
 package com.splitwise.repository;
 
+import com.splitwise.dto.PersonAmount;
 import com.splitwise.model.ExpenseShare;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -11,5 +14,21 @@ public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long
 
     List<ExpenseShare> findByExpenseId(Long expenseId);
 
-    void deleteByPersonId(Long personId);
+    @Modifying
+    @Query("DELETE FROM ExpenseShare s WHERE s.person.id = :personId")
+    void deleteByPersonIdInBulk(Long personId);
+
+    /** Todas las partes de los gastos que pagó payerId. */
+    @Modifying
+    @Query("DELETE FROM ExpenseShare s WHERE s.expense.id IN (SELECT e.id FROM Expense e WHERE e.paidBy.id = :payerId)")
+    void deleteByPayerIdInBulk(Long payerId);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseShare s WHERE s.expense.id IN (SELECT e.id FROM Expense e WHERE e.trip.id = :tripId)")
+    void deleteByTripIdInBulk(Long tripId);
+
+    /** Total consumido por persona en el viaje (SUM(amount) de sus partes agrupado por person_id). */
+    @Query("SELECT s.person.id AS personId, SUM(s.amount) AS total FROM ExpenseShare s " +
+            "WHERE s.expense.trip.id = :tripId GROUP BY s.person.id")
+    List<PersonAmount> sumConsumedByPerson(Long tripId);
 }
@@ -0,0 +1,61 @@
+package com.splitwise.repository;
+
+import com.splitwise.model.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface LedgerRepository extends JpaRepository<LedgerEntry, Long> {
+
+    @Query("SELECT l FROM LedgerEntry l JOIN FETCH l.person p WHERE l.trip.id = :tripId ORDER BY p.name")
+    List<LedgerEntry> findByTripIdWithPerson(Long tripId);
+
+    /** Filas del libro de varios viajes en una consulta, agrupables por viaje. */
+    @Query("SELECT l FROM LedgerEntry l JOIN FETCH l.person p WHERE l.trip.id IN :tripIds ORDER BY l.trip.id, p.name")
+    List<LedgerEntry> findByTripIdInWithPerson(Collection<Long> tripIds);
+
+    @Modifying
+    @Query("UPDATE LedgerEntry l SET l.totalPaid = l.totalPaid + :amount WHERE l.personId = :personId")
+    int addPaid(Long personId, BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE LedgerEntry l SET l.totalConsumed = l.totalConsumed + :amount WHERE l.personId IN :personIds")
+    int addConsumed(Collection<Long> personIds, BigDecimal amount);
+
+    /**
+     * Pagador y participantes de un gasto en una sola sentencia: las filas se bloquean siempre
+     * en el mismo orden, sin importar quién pagó (en dos sentencias, dos gastos con pagadores
+     * cruzados se bloquean mutuamente).
+     */
+    @Modifying
+    @Query("UPDATE LedgerEntry l SET "
+            + "l.totalPaid = l.totalPaid + CASE WHEN l.personId = :payerId THEN :amount ELSE 0.00BD END, "
+            + "l.totalConsumed = l.totalConsumed + CASE WHEN l.personId IN :participantIds THEN :shareAmount ELSE 0.00BD END "
+            + "WHERE l.personId = :payerId OR l.personId IN :participantIds")
+    int addExpense(Long payerId, BigDecimal amount, Collection<Long> participantIds, BigDecimal shareAmount);
+
+    /**
+     * Descuenta a cada persona del viaje lo que consumió en los gastos que pagó payerId
+     * (partes y divisiones compactas), en una sola sentencia (para cuando esos gastos se borran).
+     */
+    @Modifying
+    @Query("UPDATE LedgerEntry l SET l.totalConsumed = l.totalConsumed - " +
+            "(SELECT COALESCE(SUM(s.amount), 0) FROM ExpenseShare s " +
+            "WHERE s.expense.paidBy.id = :payerId AND s.person.id = l.personId) - " +
+            "(SELECT COALESCE(SUM(e.shareAmount), 0) FROM Expense e WHERE e.paidBy.id = :payerId " +
+            "AND e.participantIds LIKE CONCAT('%,', CAST(l.personId AS String), ',%')) " +
+            "WHERE l.trip.id = :tripId AND l.personId <> :payerId")
+    int subtractConsumedInExpensesPaidBy(Long tripId, Long payerId);
+
+    @Modifying
+    @Query("DELETE FROM LedgerEntry l WHERE l.personId = :personId")
+    void deleteByPersonIdInBulk(Long personId);
+
+    @Modifying
+    @Query("DELETE FROM LedgerEntry l WHERE l.trip.id = :tripId")
+    void deleteByTripIdInBulk(Long tripId);
+}
@@ -1,11 +1,33 @@
 package com.splitwise.repository;
 
+import com.splitwise.dto.TripPeopleCount;
 import com.splitwise.model.Person;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PersonRepository extends JpaRepository<Person, Long> {
 
+    /**
+     * Va en la caché de consultas: guarda los ids y las personas salen de su región. Cualquier
+     * escritura en persons (alta, cambio, borrado) invalida los resultados guardados.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Person> findByTripIdOrderByName(Long tripId);
+
+    long countByTripId(Long tripId);
+
+    /** Cantidad de personas de cada viaje indicado (los viajes sin personas no aparecen). */
+    @Query("SELECT p.trip.id AS tripId, COUNT(p) AS people FROM Person p WHERE p.trip.id IN :tripIds GROUP BY p.trip.id")
+    List<TripPeopleCount> countPeopleByTrip(Collection<Long> tripIds);
+
+    @Modifying
+    @Query("DELETE FROM Person p WHERE p.trip.id = :tripId")
+    void deleteByTripIdInBulk(Long tripId);
 }
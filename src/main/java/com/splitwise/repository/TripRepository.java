@@ -1,6 +1,8 @@
 package com.splitwise.repository;
 
+import com.splitwise.dto.TripListItem;
 import com.splitwise.model.Trip;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -8,6 +10,14 @@ import java.util.List;
 
 public interface TripRepository extends JpaRepository<Trip, Long> {
 
-    @Query("SELECT t FROM Trip t ORDER BY t.id DESC")
-    List<Trip> findAllOrderByIdDesc();
+    /**
+     * Página del listado de viajes anteriores al cursor (keyset por id descendente),
+     * con cantidad de personas, cantidad de gastos y total gastado en una sola consulta.
+     */
+    @Query("SELECT t.id AS id, t.name AS name, " +
+            "(SELECT COUNT(p) FROM Person p WHERE p.trip = t) AS peopleCount, " +
+            "(SELECT COUNT(e) FROM Expense e WHERE e.trip = t) AS expenseCount, " +
+            "(SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.trip = t) AS total " +
+            "FROM Trip t WHERE t.id < :before ORDER BY t.id DESC")
+    List<TripListItem> findListPage(Long before, Limit limit);
 }
@@ -0,0 +1,228 @@
+package com.splitwise.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estrategia exacta: minimiza la cantidad de transferencias.
+ * <p>
+ * Con n saldos distintos de cero el mínimo es n - k, donde k es la mayor cantidad de
+ * subgrupos disjuntos que suman cero (cada grupo de tamaño t se salda con t - 1 pagos).
+ * Los subconjuntos de suma cero se enumeran con meet-in-the-middle sobre los saldos en
+ * centavos (dos mitades de 2^(n/2) sumas) y luego una DP sobre esos subconjuntos
+ * (bitmask) elige la partición con más grupos. Antes se separan los pares deudor/acreedor
+ * con el mismo monto, que siempre forman un grupo óptimo.
+ * <p>
+ * Si quedan más de maxBalances saldos, hay más de MAX_ZERO_SUM_SUBSETS subconjuntos de
+ * suma cero o se excede el tiempo presupuestado devuelve null y se usa la greedy.
+ */
+@Component
+public class ExactSettlementStrategy implements SettlementStrategy {
+
+    public static final String NAME = "exact";
+
+    /** Límite duro: las máscaras son int y cada mitad enumera 2^(n/2) sumas. */
+    private static final int HARD_MAX_BALANCES = 30;
+
+    /**
+     * Máximo de subconjuntos de suma cero: acota la memoria (un int cada uno) y la DP, que
+     * crece con su cuadrado. Con más, se usa la greedy.
+     */
+    static final int MAX_ZERO_SUM_SUBSETS = 1 << 16;
+
+    private final int maxBalances;
+    private final long timeBudgetNanos;
+
+    public ExactSettlementStrategy(@Value("${splitwise.settlement.exact.max-balances:25}") int maxBalances,
+                                   @Value("${splitwise.settlement.exact.time-budget-ms:50}") long timeBudgetMillis) {
+        this.maxBalances = Math.min(maxBalances, HARD_MAX_BALANCES);
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public TransferPlan settle(long[] balances) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+
+        // Solo saldos distintos de cero; el redondeo de las partes puede dejar un residuo que
+        // se asigna a un participante ficticio (índice -1) cuyas transferencias no se informan.
+        int count = 0;
+        long total = 0;
+        for (long b : balances) {
+            if (b != 0) count++;
+            total += b;
+        }
+        int size = total != 0 ? count + 1 : count;
+        int[] people = new int[size];
+        long[] cents = new long[size];
+        int k = 0;
+        for (int i = 0; i < balances.length; i++) {
+            if (balances[i] == 0) continue;
+            people[k] = i;
+            cents[k++] = balances[i];
+        }
+        if (total != 0) {
+            people[k] = -1;
+            cents[k] = -total;
+        }
+        TransferPlan plan = new TransferPlan(size);
+
+        // Pares exactos: un deudor y un acreedor con el mismo monto se saldan con un pago.
+        boolean[] matched = new boolean[size];
+        Map<Long, List<Integer>> pendingByAmount = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            List<Integer> opposite = pendingByAmount.get(-cents[i]);
+            if (opposite != null && !opposite.isEmpty()) {
+                int j = opposite.remove(opposite.size() - 1);
+                matched[i] = matched[j] = true;
+                addTransfer(plan, people, cents, i, j, Math.abs(cents[i]));
+            } else {
+                pendingByAmount.computeIfAbsent(cents[i], key -> new ArrayList<>()).add(i);
+            }
+        }
+        int n = 0;
+        int[] remaining = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (!matched[i]) remaining[n++] = i;
+        }
+        if (n == 0) return plan;
+        if (n > maxBalances) return null;
+
+        long[] balance = new long[n];
+        for (int i = 0; i < n; i++) balance[i] = cents[remaining[i]];
+        int[] zeroSum = zeroSumSubsets(balance, deadline);
+        if (zeroSum == null) return null;
+
+        // DP sobre los subconjuntos de suma cero en orden creciente (todo subconjunto propio
+        // es numéricamente menor): el grupo que contiene al elemento más bajo de M es S y el
+        // resto M \ S también suma cero, así que ya está calculado.
+        // Los subconjuntos de cada bit más bajo, en orden (zeroSum ya está ordenado); el índice
+        // de un subconjunto se busca por bisección en zeroSum.
+        int[][] byLowest = new int[n][];
+        int[] lowestCount = new int[n];
+        for (int m : zeroSum) lowestCount[Integer.numberOfTrailingZeros(m)]++;
+        for (int i = 0; i < n; i++) byLowest[i] = new int[lowestCount[i]];
+        Arrays.fill(lowestCount, 0);
+        for (int m : zeroSum) {
+            int lowest = Integer.numberOfTrailingZeros(m);
+            byLowest[lowest][lowestCount[lowest]++] = m;
+        }
+        int[] groups = new int[zeroSum.length];
+        int[] choice = new int[zeroSum.length];
+        long steps = 0;
+        for (int z = 0; z < zeroSum.length; z++) {
+            int m = zeroSum[z];
+            groups[z] = 1;
+            choice[z] = m;
+            // S contiene al elemento más bajo de M, así que su bit más bajo es el mismo.
+            for (int sub : byLowest[Integer.numberOfTrailingZeros(m)]) {
+                if (sub >= m) break;
+                if ((++steps & 0x3FF) == 0 && System.nanoTime() > deadline) return null;
+                if ((sub & ~m) != 0) continue;
+                int candidate = 1 + groups[Arrays.binarySearch(zeroSum, m ^ sub)];
+                if (candidate > groups[z]) {
+                    groups[z] = candidate;
+                    choice[z] = sub;
+                }
+            }
+        }
+
+        int[] group = new int[n];
+        int mask = (1 << n) - 1;
+        while (mask != 0) {
+            int sub = choice[Arrays.binarySearch(zeroSum, mask)];
+            int groupSize = 0;
+            for (int rest = sub; rest != 0; rest &= rest - 1) {
+                group[groupSize++] = remaining[Integer.numberOfTrailingZeros(rest)];
+            }
+            settleGroup(plan, people, cents, group, groupSize);
+            mask ^= sub;
+        }
+        return plan;
+    }
+
+    /**
+     * Todos los subconjuntos no vacíos de suma cero, ordenados. Se combinan las sumas de
+     * la primera mitad de los saldos con las de la segunda mitad que dan el opuesto.
+     * Con saldos repetidos (divisiones equitativas) pueden ser cientos de miles: pasado
+     * MAX_ZERO_SUM_SUBSETS, o el tiempo presupuestado, devuelve null.
+     */
+    private static int[] zeroSumSubsets(long[] balance, long deadline) {
+        int n = balance.length;
+        int half = n / 2;
+        long[] lowSums = subsetSums(balance, 0, half);
+        long[] highSums = subsetSums(balance, half, n - half);
+        Map<Long, List<Integer>> highBySum = new HashMap<>(highSums.length * 2);
+        for (int mask = 0; mask < highSums.length; mask++) {
+            highBySum.computeIfAbsent(highSums[mask], k -> new ArrayList<>(1)).add(mask);
+        }
+        int[] found = new int[64];
+        int size = 0;
+        for (int mask = 0; mask < lowSums.length; mask++) {
+            List<Integer> matches = highBySum.get(-lowSums[mask]);
+            if (matches != null) {
+                for (int high : matches) {
+                    int subset = mask | (high << half);
+                    if (subset == 0) continue;
+                    if (size == found.length) {
+                        if (size == MAX_ZERO_SUM_SUBSETS) return null;
+                        found = Arrays.copyOf(found, Math.min(size * 2, MAX_ZERO_SUM_SUBSETS));
+                    }
+                    found[size++] = subset;
+                    if ((size & 0x3FF) == 0 && System.nanoTime() > deadline) return null;
+                }
+            }
+            if ((mask & 0x3FF) == 0 && System.nanoTime() > deadline) return null;
+        }
+        int[] result = Arrays.copyOf(found, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static long[] subsetSums(long[] balance, int from, int count) {
+        long[] sums = new long[1 << count];
+        for (int mask = 1; mask < sums.length; mask++) {
+            sums[mask] = sums[mask & (mask - 1)] + balance[from + Integer.numberOfTrailingZeros(mask)];
+        }
+        return sums;
+    }
+
+    /** Dentro de un grupo de suma cero, la greedy usa a lo sumo (tamaño - 1) pagos. */
+    private static void settleGroup(TransferPlan plan, int[] people, long[] cents, int[] group, int groupSize) {
+        long[] left = new long[groupSize];
+        for (int g = 0; g < groupSize; g++) left[g] = Math.abs(cents[group[g]]);
+        while (true) {
+            int debtor = -1, creditor = -1;
+            for (int g = 0; g < groupSize; g++) {
+                if (left[g] == 0) continue;
+                if (cents[group[g]] < 0) {
+                    if (debtor < 0 || left[g] > left[debtor]) debtor = g;
+                } else if (creditor < 0 || left[g] > left[creditor]) {
+                    creditor = g;
+                }
+            }
+            if (debtor < 0 || creditor < 0) return;
+            long amount = Math.min(left[debtor], left[creditor]);
+            addTransfer(plan, people, cents, group[debtor], group[creditor], amount);
+            left[debtor] -= amount;
+            left[creditor] -= amount;
+        }
+    }
+
+    private static void addTransfer(TransferPlan plan, int[] people, long[] cents, int a, int b, long amount) {
+        int from = cents[a] < 0 ? a : b;
+        int to = from == a ? b : a;
+        if (people[from] < 0 || people[to] < 0) return;
+        plan.add(people[from], people[to], amount);
+    }
+}
@@ -0,0 +1,159 @@
+package com.splitwise.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitwise.dto.ExportRow;
+import com.splitwise.model.Expense;
+import com.splitwise.model.Person;
+import com.splitwise.repository.ExpenseRepository;
+import com.splitwise.repository.PersonRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de los gastos de un viaje (una fila por participante) en CSV o JSON Lines.
+ * Las filas se leen con un cursor y se escriben directo a la salida: la memoria usada no
+ * depende del tamaño del viaje.
+ */
+@Service
+public class ExpenseExportService {
+
+    public enum Format {
+        CSV("text/csv"),
+        JSONL("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return name().toLowerCase();
+        }
+    }
+
+    /** Cada cuántas filas se vacía el buffer hacia el cliente. */
+    private static final int FLUSH_EVERY = 1000;
+
+    private final ExpenseRepository expenseRepository;
+    private final PersonRepository personRepository;
+    private final JsonFactory jsonFactory;
+
+    public ExpenseExportService(ExpenseRepository expenseRepository, PersonRepository personRepository,
+                                ObjectMapper objectMapper) {
+        this.expenseRepository = expenseRepository;
+        this.personRepository = personRepository;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Transactional(readOnly = true)
+    public void export(Long tripId, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Map<Long, String> names = new HashMap<>();
+        for (Person person : personRepository.findByTripIdOrderByName(tripId)) {
+            names.put(person.getId(), person.getName());
+        }
+        try (Stream<ExportRow> rows = expenseRepository.streamExportRows(tripId)
+                .flatMap(row -> expand(row, names))) {
+            if (format == Format.CSV) {
+                writeCsv(rows.iterator(), writer);
+            } else {
+                writeJsonLines(rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Una fila por participante: expande las divisiones equitativas compactas. Un gasto que
+     * se quedó sin participantes (se borraron todos) sale igual, en una fila sin participante,
+     * como los que guardan el reparto en expense_shares.
+     */
+    private static Stream<ExportRow> expand(ExportRow row, Map<Long, String> names) {
+        if (row.getParticipantIds() == null) {
+            return Stream.of(row);
+        }
+        long[] participantIds = Expense.decodeParticipants(row.getParticipantIds());
+        if (participantIds.length == 0) {
+            return Stream.of(new ExportRow(row.getExpenseId(), row.getDescription(), row.getAmount(),
+                    row.getPaidByName(), null, null));
+        }
+        return Arrays.stream(participantIds)
+                .mapToObj(personId -> new ExportRow(row.getExpenseId(), row.getDescription(), row.getAmount(),
+                        row.getPaidByName(), names.get(personId), row.getEqualShareAmount()));
+    }
+
+    private void writeCsv(Iterator<ExportRow> rows, Writer writer) throws IOException {
+        writer.write("expense_id,description,amount,paid_by,participant,share_amount\n");
+        writer.flush();
+        int count = 0;
+        while (rows.hasNext()) {
+            ExportRow row = rows.next();
+            writer.write(String.valueOf(row.getExpenseId()));
+            writer.write(',');
+            writer.write(csv(row.getDescription()));
+            writer.write(',');
+            writer.write(plain(row.getAmount()));
+            writer.write(',');
+            writer.write(csv(row.getPaidByName()));
+            writer.write(',');
+            writer.write(csv(row.getParticipantName()));
+            writer.write(',');
+            writer.write(plain(row.getShareAmount()));
+            writer.write('\n');
+            if (++count % FLUSH_EVERY == 0) writer.flush();
+        }
+    }
+
+    private void writeJsonLines(Iterator<ExportRow> rows, Writer writer) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        int count = 0;
+        while (rows.hasNext()) {
+            ExportRow row = rows.next();
+            json.writeStartObject();
+            json.writeNumberField("expenseId", row.getExpenseId());
+            json.writeStringField("description", row.getDescription());
+            json.writeNumberField("amount", row.getAmount());
+            json.writeStringField("paidBy", row.getPaidByName());
+            json.writeStringField("participant", row.getParticipantName());
+            json.writeNumberField("shareAmount", row.getShareAmount());
+            json.writeEndObject();
+            json.writeRaw('\n');
+            if (++count % FLUSH_EVERY == 0 || count == 1) json.flush();
+        }
+        json.flush();
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
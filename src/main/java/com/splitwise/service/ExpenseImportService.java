@@ -0,0 +1,184 @@
+package com.splitwise.service;
+
+import com.splitwise.dto.ImportResult;
+import com.splitwise.journal.MutationJournal;
+import com.splitwise.model.Expense;
+import com.splitwise.model.ExpenseShare;
+import com.splitwise.model.Person;
+import com.splitwise.model.Trip;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importación masiva de gastos desde CSV: descripción, monto, pagador, participantes.
+ * Los participantes van separados por ';' y se identifican por nombre.
+ * <p>
+ * Las personas se resuelven una sola vez por archivo, los INSERT se envían en batch
+ * y el contexto de persistencia se vacía cada CHUNK_SIZE gastos para no acumular entidades.
+ * Todo el archivo se importa en una transacción: si una línea falla no se guarda nada.
+ */
+@Service
+public class ExpenseImportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TripService tripService;
+    private final LedgerService ledgerService;
+    private final TripVersions tripVersions;
+    private final MutationJournal mutationJournal;
+
+    public ExpenseImportService(TripService tripService, LedgerService ledgerService, TripVersions tripVersions,
+                                MutationJournal mutationJournal) {
+        this.tripService = tripService;
+        this.ledgerService = ledgerService;
+        this.tripVersions = tripVersions;
+        this.mutationJournal = mutationJournal;
+    }
+
+    @Transactional
+    public ImportResult importCsv(Long tripId, Reader source) throws IOException {
+        long start = System.nanoTime();
+        tripService.getTripById(tripId);
+        Map<String, Long> peopleByName = new HashMap<>();
+        for (Person person : tripService.getPeopleByTripId(tripId)) {
+            peopleByName.putIfAbsent(normalize(person.getName()), person.getId());
+        }
+        if (peopleByName.isEmpty()) {
+            throw new IllegalArgumentException("El viaje no tiene personas: agrégalas antes de importar.");
+        }
+
+        Map<Long, BigDecimal> paid = new HashMap<>();
+        Map<Long, BigDecimal> consumed = new HashMap<>();
+        int rows = 0;
+        int lineNumber = 0;
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && isHeader(line))) continue;
+            List<String> fields = parseLine(line);
+            if (fields.size() < 4) {
+                throw new IllegalArgumentException("Línea " + lineNumber + ": se esperaban 4 columnas (descripción, monto, pagador, participantes).");
+            }
+            String description = fields.get(0).trim();
+            if (description.isEmpty() || description.length() > 255) {
+                throw new IllegalArgumentException("Línea " + lineNumber + ": descripción vacía o demasiado larga.");
+            }
+            BigDecimal amount = parseAmount(fields.get(1), lineNumber);
+            Long payerId = resolve(peopleByName, fields.get(2), lineNumber);
+            Set<Long> participantIds = new LinkedHashSet<>();
+            for (String name : fields.get(3).split(";")) {
+                if (!name.isBlank()) participantIds.add(resolve(peopleByName, name, lineNumber));
+            }
+            if (participantIds.isEmpty()) {
+                throw new IllegalArgumentException("Línea " + lineNumber + ": debe indicar al menos un participante.");
+            }
+
+            BigDecimal shareAmount = ExpenseService.shareAmount(amount, participantIds.size());
+            Expense expense = new Expense();
+            expense.setDescription(description);
+            expense.setAmount(amount);
+            expense.setPaidBy(entityManager.getReference(Person.class, payerId));
+            expense.setTrip(entityManager.getReference(Trip.class, tripId));
+            boolean compact = expense.setEqualSplit(participantIds, shareAmount);
+            for (Long participantId : participantIds) {
+                if (!compact) {
+                    expense.getShares().add(new ExpenseShare(expense, entityManager.getReference(Person.class, participantId), shareAmount));
+                }
+                consumed.merge(participantId, shareAmount, BigDecimal::add);
+            }
+            paid.merge(payerId, amount, BigDecimal::add);
+            entityManager.persist(expense);
+            mutationJournal.expenseAdded(tripId, expense.getId(), description, amount, payerId, participantIds, shareAmount);
+
+            if (++rows % CHUNK_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        ledgerService.recordTotals(tripId, paid, consumed);
+        tripVersions.markChanged(tripId);
+        return new ImportResult(rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static boolean isHeader(String line) {
+        String lower = line.toLowerCase(Locale.ROOT);
+        return lower.startsWith("descripcion") || lower.startsWith("descripción") || lower.startsWith("description");
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Long resolve(Map<String, Long> peopleByName, String name, int lineNumber) {
+        Long id = peopleByName.get(normalize(name));
+        if (id == null) {
+            throw new IllegalArgumentException("Línea " + lineNumber + ": la persona '" + name.trim() + "' no pertenece al viaje.");
+        }
+        return id;
+    }
+
+    private static BigDecimal parseAmount(String value, int lineNumber) {
+        try {
+            BigDecimal amount = new BigDecimal(value.trim());
+            if (amount.compareTo(new BigDecimal("0.01")) < 0) {
+                throw new IllegalArgumentException("Línea " + lineNumber + ": el monto debe ser mayor a 0.");
+            }
+            // La columna guarda centavos: con más decimales el libro (sumado acá) no coincidiría con la base.
+            if (amount.stripTrailingZeros().scale() > 2) {
+                throw new IllegalArgumentException("Línea " + lineNumber + ": el monto admite hasta 2 decimales ('" + value.trim() + "').");
+            }
+            return amount.setScale(2);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Línea " + lineNumber + ": monto inválido '" + value.trim() + "'.");
+        }
+    }
+
+    /** Separa una línea CSV por comas respetando campos entre comillas dobles ("" = comilla literal). */
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -1,24 +1,37 @@
 package com.splitwise.service;
 
+import com.splitwise.datasource.ReadRouting;
+import com.splitwise.journal.MutationJournal;
 import com.splitwise.model.Expense;
 import com.splitwise.model.ExpenseShare;
+import com.splitwise.model.LedgerEntry;
 import com.splitwise.model.Person;
-import com.splitwise.model.Trip;
 import com.splitwise.repository.ExpenseRepository;
 import com.splitwise.repository.PersonRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.splitwise.dto.ExpensePage;
 import com.splitwise.dto.PersonSummaryRow;
+import com.splitwise.dto.SettlementPlan;
 import com.splitwise.dto.TransferSuggestion;
+import com.splitwise.dto.TripPeopleCount;
+import com.splitwise.dto.TripSummary;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Servicio de gastos. Calcula ExpenseShare (división equitativa) y resumen de saldos.
@@ -26,36 +39,94 @@ import java.util.stream.Collectors;
 @Service
 public class ExpenseService {
 
+    /** Gastos por página en el listado del viaje. */
+    public static final int PAGE_SIZE = 50;
+
     private final ExpenseRepository expenseRepository;
     private final PersonRepository personRepository;
     private final TripService tripService;
+    private final LedgerService ledgerService;
+    private final SettlementStrategy settlementStrategy;
+    private final GreedySettlementStrategy greedySettlement;
+    private final TripVersions tripVersions;
+    private final TripSummaryCache summaryCache;
+    private final MutationJournal mutationJournal;
+    private final Timer createTimer;
+    private final Timer summaryTimer;
+    private final Timer tripSummaryTimer;
+    private final Timer transfersTimer;
 
-    public ExpenseService(ExpenseRepository expenseRepository, PersonRepository personRepository, TripService tripService) {
+    public ExpenseService(ExpenseRepository expenseRepository, PersonRepository personRepository,
+                          TripService tripService, LedgerService ledgerService,
+                          List<SettlementStrategy> strategies, GreedySettlementStrategy greedySettlement,
+                          @Value("${splitwise.settlement.strategy:exact}") String strategyName,
+                          TripVersions tripVersions, TripSummaryCache summaryCache, MutationJournal mutationJournal,
+                          MeterRegistry meterRegistry) {
         this.expenseRepository = expenseRepository;
         this.personRepository = personRepository;
         this.tripService = tripService;
+        this.ledgerService = ledgerService;
+        this.greedySettlement = greedySettlement;
+        this.tripVersions = tripVersions;
+        this.summaryCache = summaryCache;
+        this.mutationJournal = mutationJournal;
+        this.createTimer = timer(meterRegistry, "createExpense");
+        this.summaryTimer = timer(meterRegistry, "getSummary");
+        this.tripSummaryTimer = timer(meterRegistry, "getTripSummary");
+        this.transfersTimer = timer(meterRegistry, "computeTransfers");
+        this.settlementStrategy = strategies.stream()
+                .filter(strategy -> strategy.getName().equalsIgnoreCase(strategyName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Estrategia de liquidación desconocida: " + strategyName));
+    }
+
+    /** Timer splitwise.service con la operación como tag. */
+    private static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder("splitwise.service")
+                .description("Tiempo de las operaciones de ExpenseService")
+                .tag("operation", operation)
+                .register(registry);
     }
 
     /**
      * Crea un gasto y sus ExpenseShare dividiendo el monto en partes iguales
      * entre las personas indicadas en participantIds.
+     * Cantidad de sentencias acotada: una consulta resuelve pagador y participantes,
+     * no se tocan las colecciones inversas (trip.expenses, person.expenseShares) y el reparto
+     * se guarda en el propio gasto (división compacta), o como partes insertadas en lote si
+     * los participantes no entran en la columna.
      */
     @Transactional
     public Expense createExpense(Long tripId, String description, BigDecimal amount, Long paidById, List<Long> participantIds) {
+        return createTimer.record(() -> insertExpense(tripId, description, amount, paidById, participantIds));
+    }
+
+    private Expense insertExpense(Long tripId, String description, BigDecimal amount, Long paidById, List<Long> participantIds) {
         if (participantIds == null || participantIds.isEmpty()) {
             throw new IllegalArgumentException("Debe seleccionar al menos una persona para el gasto.");
         }
-        Trip trip = tripService.getTripById(tripId);
-        Person payer = personRepository.findById(paidById)
-                .orElseThrow(() -> new IllegalArgumentException("Persona que pagó no encontrada."));
+        Set<Long> ids = new LinkedHashSet<>(participantIds);
+        List<Long> lookup = new ArrayList<>(ids);
+        lookup.add(paidById);
+        Map<Long, Person> people = new HashMap<>();
+        for (Person p : personRepository.findAllById(lookup)) {
+            people.put(p.getId(), p);
+        }
+
+        Person payer = people.get(paidById);
+        if (payer == null) {
+            throw new IllegalArgumentException("Persona que pagó no encontrada.");
+        }
         if (!payer.getTrip().getId().equals(tripId)) {
             throw new IllegalArgumentException("La persona que pagó no pertenece a este viaje.");
         }
 
         List<Person> participants = new ArrayList<>();
-        for (Long pid : participantIds) {
-            Person p = personRepository.findById(pid)
-                    .orElseThrow(() -> new IllegalArgumentException("Persona no encontrada: " + pid));
+        for (Long pid : ids) {
+            Person p = people.get(pid);
+            if (p == null) {
+                throw new IllegalArgumentException("Persona no encontrada: " + pid);
+            }
             if (!p.getTrip().getId().equals(tripId)) continue;
             participants.add(p);
         }
@@ -63,122 +134,214 @@ public class ExpenseService {
             throw new IllegalArgumentException("Ninguna persona seleccionada pertenece al viaje.");
         }
 
-        int count = participants.size();
-        BigDecimal shareAmount = amount.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+        BigDecimal shareAmount = shareAmount(amount, participants.size());
 
         Expense expense = new Expense();
         expense.setDescription(description.trim());
         expense.setAmount(amount);
         expense.setPaidBy(payer);
-        expense.setTrip(trip);
+        // El pagador pertenece al viaje: su referencia evita otra consulta.
+        expense.setTrip(payer.getTrip());
 
-        for (Person person : participants) {
-            ExpenseShare share = new ExpenseShare(expense, person, shareAmount);
-            expense.getShares().add(share);
-            person.getExpenseShares().add(share);
+        List<Long> participantIdList = participants.stream().map(Person::getId).toList();
+        if (!expense.setEqualSplit(participantIdList, shareAmount)) {
+            for (Person person : participants) {
+                expense.getShares().add(new ExpenseShare(expense, person, shareAmount));
+            }
         }
 
         expense = expenseRepository.save(expense);
-        trip.getExpenses().add(expense);
-        payer.getExpensesPaid().add(expense);
+        ledgerService.recordExpense(tripId, payer.getId(), amount, participantIdList, shareAmount);
+        mutationJournal.expenseAdded(tripId, expense.getId(), expense.getDescription(), amount, payer.getId(),
+                participantIdList, shareAmount);
+        tripVersions.markChanged(tripId);
         return expense;
     }
 
-    public List<Expense> getExpensesByTripId(Long tripId) {
-        return expenseRepository.findByTripIdWithPayer(tripId);
+    /** Parte de cada participante en una división equitativa, redondeada a centavos. */
+    static BigDecimal shareAmount(BigDecimal amount, int participants) {
+        return amount.divide(BigDecimal.valueOf(participants), 2, RoundingMode.HALF_UP);
     }
 
     /**
-     * Calcula por persona: total pagado, total consumido (suma de sus ExpenseShare) y saldo.
+     * Gastos del viaje más recientes que el cursor before (todos si es null), de a PAGE_SIZE.
+     * Se pide uno extra para saber si quedan páginas más antiguas.
+     */
+    @Transactional(readOnly = true)
+    public ExpensePage getExpensePage(Long tripId, Long before) {
+        long cursor = before != null ? before : Long.MAX_VALUE;
+        List<Expense> rows = expenseRepository.findPageByTripId(tripId, cursor, Limit.of(PAGE_SIZE + 1));
+        if (rows.size() <= PAGE_SIZE) {
+            return new ExpensePage(rows, null);
+        }
+        List<Expense> items = rows.subList(0, PAGE_SIZE);
+        return new ExpensePage(items, items.get(PAGE_SIZE - 1).getId());
+    }
+
+    /**
+     * Resumen por persona: total pagado, total consumido y saldo.
      * Saldo = totalPagado - totalConsumido → positivo = le deben, negativo = debe.
      */
     @Transactional(readOnly = true)
-    public List<com.splitwise.dto.PersonSummaryRow> getSummary(Long tripId) {
-        List<Person> people = tripService.getPeopleByTripId(tripId);
-        List<Expense> expenses = getExpensesByTripId(tripId);
-
-        // total pagado por persona (suma de gastos donde paidBy = person)
-        Set<Long> paidByPerson = expenses.stream()
-                .map(e -> e.getPaidBy().getId())
-                .collect(Collectors.toSet());
-
-        return people.stream().map(person -> {
-            BigDecimal totalPaid = expenses.stream()
-                    .filter(e -> e.getPaidBy().getId().equals(person.getId()))
-                    .map(Expense::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal totalConsumed = expenses.stream()
-                    .flatMap(e -> e.getShares().stream())
-                    .filter(s -> s.getPerson().getId().equals(person.getId()))
-                    .map(ExpenseShare::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal balance = totalPaid.subtract(totalConsumed);
-            return new PersonSummaryRow(
-                    person.getId(),
-                    person.getName(),
-                    totalPaid.setScale(2, RoundingMode.HALF_UP),
-                    totalConsumed.setScale(2, RoundingMode.HALF_UP),
-                    balance.setScale(2, RoundingMode.HALF_UP)
-            );
-        }).toList();
+    public List<PersonSummaryRow> getSummary(Long tripId) {
+        return summaryTimer.record(() -> getSnapshot(tripId).toSummaryRows());
     }
 
     /**
-     * Simplifica las deudas: calcula el mínimo de pagos para que todos queden a cero.
-     * Cada fila es "fromName paga amount a toName".
+     * Resumen y plan de transferencias del viaje. Se reutiliza el último calculado
+     * mientras la versión del viaje no cambie.
      */
-    public List<TransferSuggestion> computeTransfers(List<PersonSummaryRow> summary) {
-        List<TransferSuggestion> result = new ArrayList<>();
-        if (summary == null || summary.isEmpty()) return result;
-
-        // Copias mutables: (nombre, saldo restante)
-        List<PersonBalance> debtors = new ArrayList<>();
-        List<PersonBalance> creditors = new ArrayList<>();
-        for (PersonSummaryRow row : summary) {
-            BigDecimal b = row.getBalance();
-            if (b == null) continue;
-            if (b.compareTo(BigDecimal.ZERO) < 0) {
-                debtors.add(new PersonBalance(row.getPersonName(), b.negate())); // lo que debe (positivo)
-            } else if (b.compareTo(BigDecimal.ZERO) > 0) {
-                creditors.add(new PersonBalance(row.getPersonName(), b));
+    public TripSummary getTripSummary(Long tripId) {
+        return getTripSummary(tripId, false);
+    }
+
+    /**
+     * Como getTripSummary(tripId), pero con allowStale se devuelve el último resumen guardado
+     * aunque sea de una versión anterior (útil si ya hay un recálculo en camino).
+     */
+    public TripSummary getTripSummary(Long tripId, boolean allowStale) {
+        return tripSummaryTimer.record(() -> loadTripSummary(tripId, allowStale));
+    }
+
+    private TripSummary loadTripSummary(Long tripId, boolean allowStale) {
+        long version = tripVersions.current(tripId);
+        TripSummary cached = summaryCache.get(tripId, version);
+        if (cached != null) {
+            return cached;
+        }
+        if (allowStale) {
+            TripSummary latest = summaryCache.getLatest(tripId);
+            if (latest != null) {
+                return latest;
             }
         }
-        debtors.sort(Comparator.comparing(PersonBalance::getBalance).reversed()); // el que más debe primero
-        creditors.sort(Comparator.comparing(PersonBalance::getBalance).reversed()); // al que más le deben primero
+        // Lo que se guarda bajo la versión actual se lee de la principal: una réplica atrasada
+        // podría no tener todavía el cambio que la generó.
+        TripSnapshot snapshot = ReadRouting.onPrimary(() -> getSnapshot(tripId));
+        TripSummary summary = new TripSummary(snapshot.toSummaryRows(), computeTransfers(snapshot), version,
+                System.currentTimeMillis());
+        if (version != TripVersions.MISSING) {
+            summaryCache.put(tripId, summary);
+        }
+        return summary;
+    }
 
-        int i = 0, j = 0;
-        while (i < debtors.size() && j < creditors.size()) {
-            PersonBalance debtor = debtors.get(i);
-            PersonBalance creditor = creditors.get(j);
-            if (debtor.getBalance().compareTo(BigDecimal.ZERO) <= 0) {
-                i++;
-                continue;
+    /**
+     * Resúmenes de varios viajes. Los vigentes salen de la caché; para el resto se leen
+     * las filas del libro de todos juntos y las personas por viaje, en dos consultas
+     * agrupadas sin importar cuántos sean. Solo un viaje con personas fuera del libro
+     * (datos anteriores al libro) se calcula aparte.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, TripSummary> getTripSummaries(Collection<Long> tripIds) {
+        // Se guardan en la caché bajo la versión actual: se leen de la principal (ver loadTripSummary).
+        return ReadRouting.onPrimary(() -> loadTripSummaries(tripIds));
+    }
+
+    private Map<Long, TripSummary> loadTripSummaries(Collection<Long> tripIds) {
+        Map<Long, TripSummary> summaries = new LinkedHashMap<>();
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        Map<Long, Long> current = tripVersions.current(tripIds);
+        for (Long tripId : tripIds) {
+            long version = current.getOrDefault(tripId, TripVersions.MISSING);
+            TripSummary cached = summaryCache.get(tripId, version);
+            summaries.put(tripId, cached);
+            if (cached == null) {
+                versions.put(tripId, version);
             }
-            if (creditor.getBalance().compareTo(BigDecimal.ZERO) <= 0) {
-                j++;
-                continue;
+        }
+        if (versions.isEmpty()) {
+            return summaries;
+        }
+        Map<Long, List<LedgerEntry>> entries = ledgerService.getEntriesByTrip(versions.keySet());
+        Map<Long, Long> peopleByTrip = new HashMap<>();
+        for (TripPeopleCount count : personRepository.countPeopleByTrip(versions.keySet())) {
+            peopleByTrip.put(count.getTripId(), count.getPeople());
+        }
+        for (Map.Entry<Long, Long> pending : versions.entrySet()) {
+            Long tripId = pending.getKey();
+            List<LedgerEntry> tripEntries = entries.getOrDefault(tripId, List.of());
+            long people = peopleByTrip.getOrDefault(tripId, 0L);
+            TripSnapshot snapshot;
+            if (people == 0) {
+                snapshot = TripSnapshot.empty();
+            } else if (tripEntries.size() == people) {
+                snapshot = TripSnapshot.fromLedger(tripEntries);
+            } else {
+                snapshot = computeSnapshot(tripId);
+            }
+            TripSummary summary = new TripSummary(snapshot.toSummaryRows(), computeTransfers(snapshot),
+                    pending.getValue(), System.currentTimeMillis());
+            if (pending.getValue() != TripVersions.MISSING) {
+                summaryCache.put(tripId, summary);
             }
-            BigDecimal amount = debtor.getBalance().min(creditor.getBalance()).setScale(2, RoundingMode.HALF_UP);
-            result.add(new TransferSuggestion(debtor.getName(), creditor.getName(), amount));
-            debtor.setBalance(debtor.getBalance().subtract(amount));
-            creditor.setBalance(creditor.getBalance().subtract(amount));
+            summaries.put(tripId, summary);
+        }
+        return summaries;
+    }
+
+    /**
+     * Saldos del viaje en centavos, leídos del libro de saldos.
+     * Si al libro le faltan personas (viaje anterior al libro, al que después se le agregó
+     * alguien) se calcula con las consultas agregadas: el libro solo tendría a los nuevos.
+     */
+    @Transactional(readOnly = true)
+    public TripSnapshot getSnapshot(Long tripId) {
+        List<LedgerEntry> entries = ledgerService.getEntries(tripId);
+        if (entries.isEmpty() || entries.size() != personRepository.countByTripId(tripId)) {
+            return computeSnapshot(tripId);
+        }
+        return TripSnapshot.fromLedger(entries);
+    }
+
+    /**
+     * Resumen calculado en la base: dos consultas SUM ... GROUP BY (pagado y consumido)
+     * y una pasada sobre las personas, sin cargar gastos ni partes como entidades.
+     */
+    @Transactional(readOnly = true)
+    public List<PersonSummaryRow> computeSummary(Long tripId) {
+        return computeSnapshot(tripId).toSummaryRows();
+    }
+
+    private TripSnapshot computeSnapshot(Long tripId) {
+        List<Person> people = tripService.getPeopleByTripId(tripId);
+        if (people.isEmpty()) {
+            return TripSnapshot.empty();
         }
-        return result;
+        Map<Long, BigDecimal> paid = LedgerService.toMap(expenseRepository.sumPaidByPerson(tripId));
+        Map<Long, BigDecimal> consumed = ledgerService.sumConsumedByPerson(tripId);
+        return TripSnapshot.fromTotals(people, paid, consumed);
     }
 
-    /** Helper mutable para el algoritmo de simplificación. */
-    private static class PersonBalance {
-        private final String name;
-        private BigDecimal balance;
+    public SettlementPlan computeTransfers(List<PersonSummaryRow> summary) {
+        if (summary == null || summary.isEmpty()) {
+            return computeTransfers(TripSnapshot.empty());
+        }
+        return computeTransfers(TripSnapshot.fromSummary(summary));
+    }
 
-        PersonBalance(String name, BigDecimal balance) {
-            this.name = name;
-            this.balance = balance;
+    /**
+     * Simplifica las deudas con la estrategia configurada (splitwise.settlement.strategy).
+     * Si esa estrategia excede su presupuesto se usa la greedy. Las cuentas se hacen en
+     * centavos; recién al final se arma cada "fromName paga amount a toName".
+     */
+    public SettlementPlan computeTransfers(TripSnapshot snapshot) {
+        return transfersTimer.record(() -> settle(snapshot));
+    }
+
+    private SettlementPlan settle(TripSnapshot snapshot) {
+        long[] balances = snapshot.balances();
+        SettlementStrategy used = settlementStrategy;
+        TransferPlan plan = settlementStrategy.settle(balances);
+        if (plan == null) {
+            used = greedySettlement;
+            plan = greedySettlement.settle(balances);
+        }
+        List<TransferSuggestion> transfers = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            transfers.add(new TransferSuggestion(snapshot.name(plan.from(i)), snapshot.name(plan.to(i)),
+                    BigDecimal.valueOf(plan.cents(i), 2)));
         }
-        String getName() { return name; }
-        BigDecimal getBalance() { return balance; }
-        void setBalance(BigDecimal balance) { this.balance = balance; }
+        return new SettlementPlan(transfers, used.getName(), used != settlementStrategy);
     }
 }
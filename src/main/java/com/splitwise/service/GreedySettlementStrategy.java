@@ -0,0 +1,75 @@
+package com.splitwise.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Estrategia greedy: rápida y siempre aplicable, pero puede generar más pagos que los necesarios.
+ */
+@Component
+public class GreedySettlementStrategy implements SettlementStrategy {
+
+    public static final String NAME = "greedy";
+
+    /** Bits bajos de la clave de orden reservados para el índice de la persona. */
+    private static final int INDEX_BITS = 20;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Empareja al que más debe con al que más le deben hasta que todos quedan a cero.
+     * Deudores y acreedores se ordenan como claves long (monto en los bits altos, índice
+     * invertido en los bajos) para no crear objetos: a igual monto conserva el orden original.
+     */
+    @Override
+    public TransferPlan settle(long[] balances) {
+        int n = balances.length;
+        long[] debtors = new long[n];
+        long[] creditors = new long[n];
+        int debtorCount = 0, creditorCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (balances[i] < 0) {
+                debtors[debtorCount++] = key(-balances[i], i); // lo que debe (positivo)
+            } else if (balances[i] > 0) {
+                creditors[creditorCount++] = key(balances[i], i);
+            }
+        }
+        Arrays.sort(debtors, 0, debtorCount);
+        Arrays.sort(creditors, 0, creditorCount);
+
+        TransferPlan plan = new TransferPlan(Math.max(debtorCount, creditorCount));
+        // Se recorren desde el final: el que más debe y al que más le deben primero.
+        int i = debtorCount - 1, j = creditorCount - 1;
+        long debt = i >= 0 ? amount(debtors[i]) : 0;
+        long credit = j >= 0 ? amount(creditors[j]) : 0;
+        while (i >= 0 && j >= 0) {
+            long cents = Math.min(debt, credit);
+            plan.add(index(debtors[i]), index(creditors[j]), cents);
+            debt -= cents;
+            credit -= cents;
+            if (debt == 0 && --i >= 0) debt = amount(debtors[i]);
+            if (credit == 0 && --j >= 0) credit = amount(creditors[j]);
+        }
+        return plan;
+    }
+
+    private static long key(long cents, int index) {
+        if (cents >= 1L << (63 - INDEX_BITS) || index > INDEX_MASK) {
+            throw new ArithmeticException("Saldo o cantidad de personas fuera de rango");
+        }
+        return cents << INDEX_BITS | (INDEX_MASK - index);
+    }
+
+    private static long amount(long key) {
+        return key >>> INDEX_BITS;
+    }
+
+    private static int index(long key) {
+        return (int) (INDEX_MASK - (key & INDEX_MASK));
+    }
+}
@@ -0,0 +1,174 @@
+package com.splitwise.service;
+
+import com.splitwise.dto.EqualSplitTotal;
+import com.splitwise.dto.PersonAmount;
+import com.splitwise.model.Expense;
+import com.splitwise.model.LedgerEntry;
+import com.splitwise.model.Person;
+import com.splitwise.model.Trip;
+import com.splitwise.repository.ExpenseRepository;
+import com.splitwise.repository.ExpenseShareRepository;
+import com.splitwise.repository.LedgerRepository;
+import com.splitwise.repository.PersonRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene el libro de saldos por persona (LedgerEntry). Se actualiza dentro de la
+ * misma transacción que la escritura que lo afecta.
+ */
+@Service
+public class LedgerService {
+
+    private final LedgerRepository ledgerRepository;
+    private final PersonRepository personRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final TripVersions tripVersions;
+
+    public LedgerService(LedgerRepository ledgerRepository, PersonRepository personRepository,
+                         ExpenseRepository expenseRepository, ExpenseShareRepository expenseShareRepository,
+                         TripVersions tripVersions) {
+        this.ledgerRepository = ledgerRepository;
+        this.personRepository = personRepository;
+        this.expenseRepository = expenseRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.tripVersions = tripVersions;
+    }
+
+    @Transactional(readOnly = true)
+    public List<LedgerEntry> getEntries(Long tripId) {
+        return ledgerRepository.findByTripIdWithPerson(tripId);
+    }
+
+    /** Filas del libro de varios viajes (una sola consulta), agrupadas por viaje. */
+    @Transactional(readOnly = true)
+    public Map<Long, List<LedgerEntry>> getEntriesByTrip(Collection<Long> tripIds) {
+        Map<Long, List<LedgerEntry>> byTrip = new HashMap<>();
+        for (LedgerEntry entry : ledgerRepository.findByTripIdInWithPerson(tripIds)) {
+            byTrip.computeIfAbsent(entry.getTrip().getId(), id -> new ArrayList<>()).add(entry);
+        }
+        return byTrip;
+    }
+
+    /** Crea la fila en cero para una persona recién agregada. */
+    @Transactional
+    public void registerPerson(Person person, Trip trip) {
+        ledgerRepository.save(new LedgerEntry(person, trip));
+    }
+
+    /**
+     * Suma el gasto al pagador y la parte de cada participante.
+     * Si falta alguna fila (datos previos al libro) se reconstruye el viaje completo.
+     */
+    @Transactional
+    public void recordExpense(Long tripId, Long payerId, BigDecimal amount,
+                              Collection<Long> participantIds, BigDecimal shareAmount) {
+        Set<Long> people = new HashSet<>(participantIds);
+        people.add(payerId);
+        if (ledgerRepository.addExpense(payerId, amount, participantIds, shareAmount) != people.size()) {
+            rebuild(tripId);
+        }
+    }
+
+    /**
+     * Aplica totales acumulados (importación masiva): una actualización por persona
+     * en lugar de una por gasto.
+     */
+    @Transactional
+    public void recordTotals(Long tripId, Map<Long, BigDecimal> paid, Map<Long, BigDecimal> consumed) {
+        int updated = 0;
+        for (Map.Entry<Long, BigDecimal> entry : paid.entrySet()) {
+            updated += ledgerRepository.addPaid(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Long, BigDecimal> entry : consumed.entrySet()) {
+            updated += ledgerRepository.addConsumed(List.of(entry.getKey()), entry.getValue());
+        }
+        if (updated != paid.size() + consumed.size()) {
+            rebuild(tripId);
+        }
+    }
+
+    /**
+     * Quita la fila de la persona y descuenta a los demás lo que consumieron en
+     * los gastos que ella pagó (esos gastos se borran junto con la persona).
+     * Debe llamarse antes de borrar gastos y participaciones.
+     */
+    @Transactional
+    public void removePerson(Long tripId, Long personId) {
+        ledgerRepository.subtractConsumedInExpensesPaidBy(tripId, personId);
+        ledgerRepository.deleteByPersonIdInBulk(personId);
+    }
+
+    @Transactional
+    public void removeTrip(Long tripId) {
+        ledgerRepository.deleteByTripIdInBulk(tripId);
+    }
+
+    /**
+     * Recalcula el libro del viaje desde los gastos y sus repartos y corrige las diferencias.
+     * Devuelve cuántas filas estaban desfasadas (o faltaban).
+     */
+    @Transactional
+    public int rebuild(Long tripId) {
+        Map<Long, BigDecimal> paid = toMap(expenseRepository.sumPaidByPerson(tripId));
+        Map<Long, BigDecimal> consumed = sumConsumedByPerson(tripId);
+
+        Map<Long, LedgerEntry> entries = ledgerRepository.findByTripIdWithPerson(tripId).stream()
+                .collect(Collectors.toMap(LedgerEntry::getPersonId, Function.identity()));
+        int corrected = 0;
+        for (Person person : personRepository.findByTripIdOrderByName(tripId)) {
+            BigDecimal totalPaid = paid.getOrDefault(person.getId(), BigDecimal.ZERO);
+            BigDecimal totalConsumed = consumed.getOrDefault(person.getId(), BigDecimal.ZERO);
+            LedgerEntry entry = entries.get(person.getId());
+            if (entry == null) {
+                entry = new LedgerEntry(person, person.getTrip());
+            } else if (entry.getTotalPaid().compareTo(totalPaid) == 0
+                    && entry.getTotalConsumed().compareTo(totalConsumed) == 0) {
+                continue;
+            }
+            entry.setTotalPaid(totalPaid);
+            entry.setTotalConsumed(totalConsumed);
+            ledgerRepository.save(entry);
+            corrected++;
+        }
+        if (corrected > 0) {
+            tripVersions.markChanged(tripId);
+        }
+        return corrected;
+    }
+
+    /**
+     * Total consumido por persona en el viaje, sumando las dos formas de guardar el reparto:
+     * filas de expense_shares y divisiones equitativas compactas.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> sumConsumedByPerson(Long tripId) {
+        Map<Long, BigDecimal> consumed = toMap(expenseShareRepository.sumConsumedByPerson(tripId));
+        for (EqualSplitTotal split : expenseRepository.sumEqualSplitsByParticipants(tripId)) {
+            for (long personId : Expense.decodeParticipants(split.getParticipantIds())) {
+                consumed.merge(personId, split.getTotal(), BigDecimal::add);
+            }
+        }
+        return consumed;
+    }
+
+    static Map<Long, BigDecimal> toMap(List<PersonAmount> rows) {
+        Map<Long, BigDecimal> totals = new HashMap<>(rows.size() * 2);
+        for (PersonAmount row : rows) {
+            totals.put(row.getPersonId(), row.getTotal());
+        }
+        return totals;
+    }
+}
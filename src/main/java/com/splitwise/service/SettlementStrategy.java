@@ -0,0 +1,17 @@
+package com.splitwise.service;
+
+/**
+ * Algoritmo para convertir los saldos de un viaje en transferencias entre personas.
+ * Trabaja sobre los saldos en centavos de TripSnapshot (mismo orden de índices).
+ */
+public interface SettlementStrategy {
+
+    /** Nombre usado en la configuración (splitwise.settlement.strategy). */
+    String getName();
+
+    /**
+     * Calcula las transferencias. Devuelve null si no puede resolver el caso dentro
+     * de su presupuesto; en ese caso se usa la estrategia greedy.
+     */
+    TransferPlan settle(long[] balances);
+}
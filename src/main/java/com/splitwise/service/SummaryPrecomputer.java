@@ -0,0 +1,126 @@
+package com.splitwise.service;
+
+import com.splitwise.datasource.ShardContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recalcula en segundo plano el resumen de los viajes que cambiaron, para que la
+ * próxima vista del resumen no pague el cálculo. Los cambios de un mismo viaje se
+ * agrupan: se calcula debounce-ms después del último, y como mucho max-delay-ms
+ * después del primero de la ráfaga.
+ * <p>
+ * Al borrarse un viaje se cancela su recálculo pendiente y se descarta su resumen,
+ * también el que deje un recálculo que ya estaba en curso.
+ */
+@Component
+public class SummaryPrecomputer {
+
+    private static final Logger log = LoggerFactory.getLogger(SummaryPrecomputer.class);
+
+    private final ExpenseService expenseService;
+    private final TripService tripService;
+    private final TripSummaryCache summaryCache;
+    private final boolean enabled;
+    private final long debounceMs;
+    private final long maxDelayMs;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    public SummaryPrecomputer(ExpenseService expenseService, TripService tripService, TripSummaryCache summaryCache,
+                              @Value("${splitwise.summary-precompute.enabled:true}") boolean enabled,
+                              @Value("${splitwise.summary-precompute.debounce-ms:500}") long debounceMs,
+                              @Value("${splitwise.summary-precompute.max-delay-ms:5000}") long maxDelayMs) {
+        this.expenseService = expenseService;
+        this.tripService = tripService;
+        this.summaryCache = summaryCache;
+        this.enabled = enabled;
+        this.debounceMs = debounceMs;
+        this.maxDelayMs = maxDelayMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "summary-precompute");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener
+    public void onTripChanged(TripChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        pending.compute(event.getTripId(), (tripId, current) -> {
+            long now = System.nanoTime();
+            long firstAt = now;
+            if (current != null && current.future.cancel(false)) {
+                firstAt = current.firstAt;
+            }
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(now - firstAt);
+            long delayMs = Math.max(0, Math.min(debounceMs, maxDelayMs - waitedMs));
+            Pending next = new Pending(firstAt);
+            next.future = scheduler.schedule(() -> run(tripId, next), delayMs, TimeUnit.MILLISECONDS);
+            return next;
+        });
+    }
+
+    @EventListener
+    public void onTripDeleted(TripDeletedEvent event) {
+        Long tripId = event.getTripId();
+        Pending current = pending.remove(tripId);
+        if (current != null) {
+            current.deleted = true;
+            current.future.cancel(false);
+        }
+        // Después de marcar el pendiente: si un recálculo en curso guarda su resumen más tarde,
+        // ve la marca y lo quita él mismo.
+        summaryCache.remove(tripId);
+    }
+
+    /** true si hay un recálculo programado o en curso para el viaje. */
+    public boolean isPending(Long tripId) {
+        return pending.containsKey(tripId);
+    }
+
+    private void run(Long tripId, Pending self) {
+        try {
+            ShardContext.onTrip(tripId, () -> {
+                tripService.getTripById(tripId);
+                return expenseService.getTripSummary(tripId);
+            });
+        } catch (IllegalArgumentException e) {
+            // el viaje ya no existe: no se guarda un resumen vacío
+        } catch (RuntimeException e) {
+            log.warn("No se pudo precalcular el resumen del viaje {}", tripId, e);
+        } finally {
+            if (self.deleted) {
+                summaryCache.remove(tripId);
+            }
+            pending.remove(tripId, self);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private static final class Pending {
+        final long firstAt;
+        ScheduledFuture<?> future;
+        volatile boolean deleted;
+
+        Pending(long firstAt) {
+            this.firstAt = firstAt;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.splitwise.service;
+
+import java.util.Arrays;
+
+/**
+ * Transferencias calculadas por una SettlementStrategy sobre índices de TripSnapshot:
+ * from[i] paga cents[i] centavos a to[i]. Arreglos primitivos que crecen al agregar.
+ */
+public final class TransferPlan {
+
+    private int[] from;
+    private int[] to;
+    private long[] cents;
+    private int size;
+
+    public TransferPlan(int capacity) {
+        int initial = Math.max(capacity, 4);
+        this.from = new int[initial];
+        this.to = new int[initial];
+        this.cents = new long[initial];
+    }
+
+    void add(int fromIndex, int toIndex, long amountCents) {
+        if (size == from.length) {
+            int grown = size * 2;
+            from = Arrays.copyOf(from, grown);
+            to = Arrays.copyOf(to, grown);
+            cents = Arrays.copyOf(cents, grown);
+        }
+        from[size] = fromIndex;
+        to[size] = toIndex;
+        cents[size] = amountCents;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int from(int i) {
+        return from[i];
+    }
+
+    public int to(int i) {
+        return to[i];
+    }
+
+    public long cents(int i) {
+        return cents[i];
+    }
+}
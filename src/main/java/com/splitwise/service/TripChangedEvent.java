@@ -0,0 +1,18 @@
+package com.splitwise.service;
+
+/**
+ * Se publica después del commit de cada escritura que afecta a un viaje, en la instancia
+ * que la hizo (ver TripVersions).
+ */
+public class TripChangedEvent {
+
+    private final Long tripId;
+
+    public TripChangedEvent(Long tripId) {
+        this.tripId = tripId;
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+}
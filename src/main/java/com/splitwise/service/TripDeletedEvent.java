@@ -0,0 +1,18 @@
+package com.splitwise.service;
+
+/**
+ * Se publica después del commit del borrado de un viaje, en lugar de un TripChangedEvent
+ * (ver TripVersions).
+ */
+public class TripDeletedEvent {
+
+    private final Long tripId;
+
+    public TripDeletedEvent(Long tripId) {
+        this.tripId = tripId;
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+}
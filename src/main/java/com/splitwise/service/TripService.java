@@ -1,15 +1,29 @@
 package com.splitwise.service;
 
+import com.splitwise.datasource.ShardContext;
+import com.splitwise.datasource.TripShards;
+import com.splitwise.dto.TripListItem;
+import com.splitwise.dto.TripListPage;
+import com.splitwise.journal.MutationJournal;
+import com.splitwise.model.Expense;
 import com.splitwise.model.Person;
 import com.splitwise.model.Trip;
 import com.splitwise.repository.ExpenseRepository;
 import com.splitwise.repository.ExpenseShareRepository;
 import com.splitwise.repository.PersonRepository;
 import com.splitwise.repository.TripRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Servicio de viajes y personas.
@@ -17,29 +31,85 @@ import java.util.List;
 @Service
 public class TripService {
 
+    /** Viajes por página en la pantalla principal. */
+    public static final int PAGE_SIZE = 20;
+
     private final TripRepository tripRepository;
     private final PersonRepository personRepository;
     private final ExpenseRepository expenseRepository;
     private final ExpenseShareRepository expenseShareRepository;
+    private final LedgerService ledgerService;
+    private final TripVersions tripVersions;
+    private final TripShards tripShards;
+    private final MutationJournal mutationJournal;
+    private final TransactionTemplate readOnlyTx;
 
     public TripService(TripRepository tripRepository, PersonRepository personRepository,
-                       ExpenseRepository expenseRepository, ExpenseShareRepository expenseShareRepository) {
+                       ExpenseRepository expenseRepository, ExpenseShareRepository expenseShareRepository,
+                       LedgerService ledgerService, TripVersions tripVersions, TripShards tripShards,
+                       MutationJournal mutationJournal, PlatformTransactionManager transactionManager) {
         this.tripRepository = tripRepository;
         this.personRepository = personRepository;
         this.expenseRepository = expenseRepository;
         this.expenseShareRepository = expenseShareRepository;
+        this.ledgerService = ledgerService;
+        this.tripVersions = tripVersions;
+        this.tripShards = tripShards;
+        this.mutationJournal = mutationJournal;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
     }
 
-    @Transactional
+    /**
+     * Crea el viaje en el shard que le toca (ver TripShards). Sin transacción envolvente:
+     * el shard tiene que estar elegido antes de que la transacción tome su conexión.
+     */
     public Trip createTrip(String name) {
         Trip trip = new Trip(name);
-        return tripRepository.save(trip);
+        Trip created = ShardContext.onShard(tripShards.nextShard(), () -> {
+            Trip saved = tripRepository.save(trip);
+            tripVersions.markCreated(saved.getId());
+            return saved;
+        });
+        mutationJournal.tripCreated(created.getId(), created.getName());
+        return created;
+    }
+
+    /**
+     * Viajes más recientes que el cursor before (todos si es null), de a PAGE_SIZE,
+     * con sus agregados. Se pide uno extra para saber si quedan páginas más antiguas.
+     * Con sharding se pide la página a cada shard y se mezclan por id.
+     */
+    public TripListPage findTripPage(Long before) {
+        long cursor = before != null ? before : Long.MAX_VALUE;
+        List<TripListItem> rows = new ArrayList<>();
+        tripShards.all().forEach(shard -> rows.addAll(readOnShard(shard,
+                () -> tripRepository.findListPage(cursor, Limit.of(PAGE_SIZE + 1)))));
+        rows.sort(Comparator.comparing(TripListItem::getId).reversed());
+        if (rows.size() <= PAGE_SIZE) {
+            return new TripListPage(rows, null);
+        }
+        List<TripListItem> items = rows.subList(0, PAGE_SIZE);
+        return new TripListPage(items, items.get(PAGE_SIZE - 1).getId());
+    }
+
+    /**
+     * Los viajes existentes entre los ids indicados, en una consulta por shard. Los ids de
+     * shards no configurados no existen y no se consultan.
+     */
+    public List<Trip> findTripsById(Collection<Long> ids) {
+        List<Trip> trips = new ArrayList<>();
+        ids.stream().filter(tripShards::hasShard).collect(Collectors.groupingBy(TripShards::shardOf))
+                .forEach((shard, shardIds) -> trips.addAll(readOnShard(shard, () -> tripRepository.findAllById(shardIds))));
+        return trips;
     }
 
-    public List<Trip> findAllTrips() {
-        return tripRepository.findAllOrderByIdDesc();
+    /** Lectura en una transacción de solo lectura propia, sobre el shard indicado. */
+    private <T> T readOnShard(int shard, Supplier<T> read) {
+        return ShardContext.onShard(shard, () -> readOnlyTx.execute(status -> read.get()));
     }
 
+    @Transactional(readOnly = true)
     public Trip getTripById(Long id) {
         return tripRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Viaje no encontrado: " + id));
@@ -51,9 +121,13 @@ public class TripService {
         Person person = new Person(name.trim(), trip);
         person = personRepository.save(person);
         trip.getPeople().add(person);
+        ledgerService.registerPerson(person, trip);
+        mutationJournal.personAdded(tripId, person.getId(), person.getName());
+        tripVersions.markChanged(tripId);
         return person;
     }
 
+    @Transactional(readOnly = true)
     public List<Person> getPeopleByTripId(Long tripId) {
         return personRepository.findByTripIdOrderByName(tripId);
     }
@@ -62,15 +136,28 @@ public class TripService {
     public Trip updateTrip(Long id, String name) {
         Trip trip = getTripById(id);
         trip.setName(name != null ? name.trim() : "");
+        mutationJournal.tripRenamed(id, trip.getName());
+        tripVersions.markChanged(id);
         return tripRepository.save(trip);
     }
 
+    /**
+     * Elimina el viaje con borrados masivos (libro, partes, gastos, personas, viaje):
+     * la cantidad de sentencias no depende del tamaño del viaje y no se cargan entidades.
+     */
     @Transactional
     public void deleteTrip(Long id) {
-        Trip trip = getTripById(id);
-        tripRepository.delete(trip);
+        getTripById(id);
+        ledgerService.removeTrip(id);
+        expenseShareRepository.deleteByTripIdInBulk(id);
+        expenseRepository.deleteByTripIdInBulk(id);
+        personRepository.deleteByTripIdInBulk(id);
+        tripRepository.deleteAllByIdInBatch(List.of(id));
+        mutationJournal.tripDeleted(id);
+        tripVersions.markDeleted(id);
     }
 
+    @Transactional(readOnly = true)
     public Person getPersonInTrip(Long tripId, Long personId) {
         Person person = personRepository.findById(personId)
                 .orElseThrow(() -> new IllegalArgumentException("Persona no encontrada."));
@@ -84,15 +171,25 @@ public class TripService {
     public Person updatePerson(Long tripId, Long personId, String name) {
         Person person = getPersonInTrip(tripId, personId);
         person.setName(name != null ? name.trim() : "");
+        mutationJournal.personRenamed(tripId, personId, person.getName());
+        tripVersions.markChanged(tripId);
         return personRepository.save(person);
     }
 
-    /** Elimina la persona y sus gastos como pagador; quita su participación en otros gastos. */
+    /**
+     * Elimina la persona y sus gastos como pagador; quita su participación en otros gastos.
+     * Todo con sentencias masivas, sin cargar gastos ni partes.
+     */
     @Transactional
     public void deletePerson(Long tripId, Long personId) {
-        Person person = getPersonInTrip(tripId, personId);
-        expenseShareRepository.deleteByPersonId(personId);
-        expenseRepository.deleteByPaidById(personId);
-        personRepository.delete(person);
+        getPersonInTrip(tripId, personId);
+        ledgerService.removePerson(tripId, personId);
+        expenseShareRepository.deleteByPersonIdInBulk(personId);
+        expenseShareRepository.deleteByPayerIdInBulk(personId);
+        expenseRepository.deleteByPaidByIdInBulk(personId);
+        expenseRepository.removeParticipantInBulk(tripId, Expense.encodeParticipants(List.of(personId)));
+        personRepository.deleteAllByIdInBatch(List.of(personId));
+        mutationJournal.personDeleted(tripId, personId);
+        tripVersions.markChanged(tripId);
     }
 }
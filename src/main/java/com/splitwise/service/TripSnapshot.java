@@ -0,0 +1,138 @@
+package com.splitwise.service;
+
+import com.splitwise.dto.PersonSummaryRow;
+import com.splitwise.model.LedgerEntry;
+import com.splitwise.model.Person;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Foto inmutable de los saldos de un viaje para hacer cuentas sin objetos:
+ * cada persona tiene un índice denso (orden por nombre) y los montos se guardan
+ * en centavos como long. Se convierte a PersonSummaryRow / TransferSuggestion
+ * solo al final, para la vista.
+ */
+public final class TripSnapshot {
+
+    private static final TripSnapshot EMPTY = new TripSnapshot(new long[0], new String[0], new long[0], new long[0]);
+
+    private final long[] personIds;
+    private final String[] names;
+    private final long[] paidCents;
+    private final long[] consumedCents;
+
+    private TripSnapshot(long[] personIds, String[] names, long[] paidCents, long[] consumedCents) {
+        this.personIds = personIds;
+        this.names = names;
+        this.paidCents = paidCents;
+        this.consumedCents = consumedCents;
+    }
+
+    public static TripSnapshot empty() {
+        return EMPTY;
+    }
+
+    /** Desde el libro de saldos (ya ordenado por nombre). */
+    public static TripSnapshot fromLedger(List<LedgerEntry> entries) {
+        int n = entries.size();
+        long[] ids = new long[n];
+        String[] names = new String[n];
+        long[] paid = new long[n];
+        long[] consumed = new long[n];
+        for (int i = 0; i < n; i++) {
+            LedgerEntry entry = entries.get(i);
+            ids[i] = entry.getPersonId();
+            names[i] = entry.getPerson().getName();
+            paid[i] = toCents(entry.getTotalPaid());
+            consumed[i] = toCents(entry.getTotalConsumed());
+        }
+        return new TripSnapshot(ids, names, paid, consumed);
+    }
+
+    /** Desde las personas del viaje y los totales agregados por persona. */
+    public static TripSnapshot fromTotals(List<Person> people, Map<Long, BigDecimal> paidByPerson,
+                                          Map<Long, BigDecimal> consumedByPerson) {
+        int n = people.size();
+        long[] ids = new long[n];
+        String[] names = new String[n];
+        long[] paid = new long[n];
+        long[] consumed = new long[n];
+        for (int i = 0; i < n; i++) {
+            Person person = people.get(i);
+            ids[i] = person.getId();
+            names[i] = person.getName();
+            paid[i] = toCents(paidByPerson.get(person.getId()));
+            consumed[i] = toCents(consumedByPerson.get(person.getId()));
+        }
+        return new TripSnapshot(ids, names, paid, consumed);
+    }
+
+    /** Desde filas de resumen ya construidas (para quien solo tiene la vista). */
+    public static TripSnapshot fromSummary(List<PersonSummaryRow> rows) {
+        int n = rows.size();
+        long[] ids = new long[n];
+        String[] names = new String[n];
+        long[] paid = new long[n];
+        long[] consumed = new long[n];
+        for (int i = 0; i < n; i++) {
+            PersonSummaryRow row = rows.get(i);
+            ids[i] = row.getPersonId() != null ? row.getPersonId() : 0L;
+            names[i] = row.getPersonName();
+            paid[i] = toCents(row.getTotalPaid());
+            consumed[i] = row.getBalance() != null ? paid[i] - toCents(row.getBalance()) : toCents(row.getTotalConsumed());
+        }
+        return new TripSnapshot(ids, names, paid, consumed);
+    }
+
+    public int size() {
+        return personIds.length;
+    }
+
+    public long personId(int index) {
+        return personIds[index];
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public long paidCents(int index) {
+        return paidCents[index];
+    }
+
+    public long consumedCents(int index) {
+        return consumedCents[index];
+    }
+
+    /** Saldo en centavos: positivo = le deben, negativo = debe. */
+    public long balanceCents(int index) {
+        return paidCents[index] - consumedCents[index];
+    }
+
+    /** Copia de los saldos en centavos, indexada igual que las personas. */
+    public long[] balances() {
+        long[] balances = new long[personIds.length];
+        for (int i = 0; i < balances.length; i++) {
+            balances[i] = paidCents[i] - consumedCents[i];
+        }
+        return balances;
+    }
+
+    public List<PersonSummaryRow> toSummaryRows() {
+        PersonSummaryRow[] rows = new PersonSummaryRow[personIds.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new PersonSummaryRow(personIds[i], names[i],
+                    BigDecimal.valueOf(paidCents[i], 2),
+                    BigDecimal.valueOf(consumedCents[i], 2),
+                    BigDecimal.valueOf(balanceCents(i), 2));
+        }
+        return List.of(rows);
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
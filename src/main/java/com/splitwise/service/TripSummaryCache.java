@@ -0,0 +1,91 @@
+package com.splitwise.service;
+
+import com.splitwise.dto.TripSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché LRU acotada de resúmenes por viaje. Una entrada solo sirve si fue calculada
+ * para la versión actual del viaje (TripVersions); si no, cuenta como fallo.
+ */
+@Component
+public class TripSummaryCache {
+
+    private final int maxSize;
+    private final Map<Long, TripSummary> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TripSummaryCache(@Value("${splitwise.summary-cache.max-size:1000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TripSummary> eldest) {
+                if (size() > TripSummaryCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Devuelve el resumen guardado si corresponde a esa versión del viaje, o null. */
+    public TripSummary get(Long tripId, long version) {
+        TripSummary summary;
+        synchronized (entries) {
+            summary = entries.get(tripId);
+        }
+        if (summary != null && summary.getVersion() == version) {
+            hits.increment();
+            return summary;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /** Último resumen guardado del viaje, sea de la versión que sea, o null. */
+    public TripSummary getLatest(Long tripId) {
+        synchronized (entries) {
+            return entries.get(tripId);
+        }
+    }
+
+    public void put(Long tripId, TripSummary summary) {
+        synchronized (entries) {
+            TripSummary current = entries.get(tripId);
+            if (current == null || current.getVersion() <= summary.getVersion()) {
+                entries.put(tripId, summary);
+            }
+        }
+    }
+
+    public void remove(Long tripId) {
+        synchronized (entries) {
+            entries.remove(tripId);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,118 @@
+package com.splitwise.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitwise.datasource.ShardContext;
+import com.splitwise.datasource.TripShards;
+import com.splitwise.dto.PersonSummaryRow;
+import com.splitwise.dto.SettlementPlan;
+import com.splitwise.dto.TransferSuggestion;
+import com.splitwise.dto.TripSummary;
+import com.splitwise.model.Trip;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Resúmenes y transferencias de varios viajes como un documento JSON, escrito de a tandas
+ * de BATCH_SIZE viajes: cada tanda se lee (una consulta agrupada por shard), se escribe y se
+ * envía antes de leer la siguiente, así el primer viaje sale sin esperar a los demás.
+ * {"trips":[{"id","name","version","computedAt","people":[...],"settlement":{...}}],"notFound":[ids]}
+ */
+@Service
+public class TripSummaryJsonService {
+
+    /** Viajes por tanda. */
+    private static final int BATCH_SIZE = 20;
+
+    private final TripService tripService;
+    private final ExpenseService expenseService;
+    private final JsonFactory jsonFactory;
+
+    public TripSummaryJsonService(TripService tripService, ExpenseService expenseService, ObjectMapper objectMapper) {
+        this.tripService = tripService;
+        this.expenseService = expenseService;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void write(Collection<Long> tripIds, OutputStream out) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartObject();
+        json.writeArrayFieldStart("trips");
+        List<Long> ids = new ArrayList<>(tripIds);
+        List<Long> notFound = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            Map<Long, Trip> trips = new HashMap<>();
+            for (Trip trip : tripService.findTripsById(batch)) {
+                trips.put(trip.getId(), trip);
+            }
+            // Una llamada por shard: cada una lee con sus consultas agrupadas en su propia base.
+            Map<Long, TripSummary> summaries = new HashMap<>();
+            batch.stream().filter(trips::containsKey)
+                    .collect(Collectors.groupingBy(TripShards::shardOf))
+                    .forEach((shard, shardIds) -> summaries.putAll(
+                            ShardContext.onShard(shard, () -> expenseService.getTripSummaries(shardIds))));
+            for (Long tripId : batch) {
+                TripSummary summary = summaries.get(tripId);
+                if (summary == null) {
+                    notFound.add(tripId);
+                    continue;
+                }
+                writeTrip(json, trips.get(tripId), summary);
+            }
+            json.flush();
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("notFound");
+        for (Long tripId : notFound) {
+            json.writeNumber(tripId);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+    }
+
+    private static void writeTrip(JsonGenerator json, Trip trip, TripSummary summary) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", trip.getId());
+        json.writeStringField("name", trip.getName());
+        json.writeNumberField("version", summary.getVersion());
+        json.writeNumberField("computedAt", summary.getComputedAt());
+        json.writeArrayFieldStart("people");
+        for (PersonSummaryRow row : summary.getRows()) {
+            json.writeStartObject();
+            json.writeNumberField("personId", row.getPersonId());
+            json.writeStringField("name", row.getPersonName());
+            json.writeNumberField("totalPaid", row.getTotalPaid());
+            json.writeNumberField("totalConsumed", row.getTotalConsumed());
+            json.writeNumberField("balance", row.getBalance());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        SettlementPlan settlement = summary.getSettlement();
+        json.writeObjectFieldStart("settlement");
+        json.writeStringField("strategy", settlement.getStrategy());
+        json.writeBooleanField("fallback", settlement.isFallback());
+        json.writeArrayFieldStart("transfers");
+        for (TransferSuggestion transfer : settlement.getTransfers()) {
+            json.writeStartObject();
+            json.writeStringField("from", transfer.getFromName());
+            json.writeStringField("to", transfer.getToName());
+            json.writeNumberField("amount", transfer.getAmount());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,203 @@
+package com.splitwise.service;
+
+import com.splitwise.datasource.ReadRouting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Versión de cada viaje, guardada en trips.version. Cada escritura que afecta a un viaje
+ * (personas, gastos, nombre) la incrementa en su misma transacción; lo que se calcula a
+ * partir del viaje se puede guardar junto con la versión y reutilizar mientras no cambie.
+ * Como está en la base, todas las instancias de la aplicación ven la misma.
+ * <p>
+ * El incremento se hace justo antes del commit, una vez por viaje y transacción: la fila
+ * del viaje queda bloqueada solo mientras se confirma. La versión nueva es
+ * GREATEST(version + 1, hora actual en ms), así que un viaje no repite una versión aunque
+ * la base se vuelva a crear (H2 en memoria, journal) y reaparezca con el mismo id.
+ * <p>
+ * Después del commit se publica un TripChangedEvent (un TripDeletedEvent si el viaje se
+ * borró) y se anota el momento del cambio, en memoria y por instancia: sirve para no leer
+ * de una réplica atrasada (changedWithin). Los borrados también se anotan, así una réplica
+ * que todavía tiene el viaje no lo vuelve a mostrar. Cada anotación se guarda max-lag-ms
+ * (el atraso máximo de la réplica) y después se descarta.
+ */
+@Component
+public class TripVersions {
+
+    /** Versión de un viaje que no existe: distinta de cualquier versión real. */
+    public static final long MISSING = -1L;
+
+    private final JdbcTemplate jdbc;
+    private final long retentionNanos;
+    /** Momento (System.nanoTime) del último cambio o borrado de cada viaje, del más viejo al más nuevo. */
+    private final LinkedHashMap<Long, Long> changedAt = new LinkedHashMap<>();
+
+    private final ApplicationEventPublisher events;
+
+    public TripVersions(JdbcTemplate jdbc, ApplicationEventPublisher events,
+                        @Value("${splitwise.datasource.replica.max-lag-ms:1000}") long maxLagMs) {
+        this.jdbc = jdbc;
+        this.events = events;
+        this.retentionNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMs);
+    }
+
+    /**
+     * Versión actual del viaje (MISSING si no existe), leída de la base principal del shard
+     * actual: una réplica atrasada devolvería una versión vieja.
+     */
+    public long current(Long tripId) {
+        List<Long> version = ReadRouting.onPrimary(() ->
+                jdbc.queryForList("SELECT version FROM trips WHERE id = ?", Long.class, tripId));
+        return version.isEmpty() ? MISSING : version.get(0);
+    }
+
+    /** Versiones actuales de varios viajes del shard actual, en una consulta; los que no existen no aparecen. */
+    public Map<Long, Long> current(Collection<Long> tripIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        if (tripIds.isEmpty()) {
+            return versions;
+        }
+        String in = tripIds.stream().map(id -> "?").collect(Collectors.joining(","));
+        ReadRouting.onPrimary(() -> {
+            jdbc.query("SELECT id, version FROM trips WHERE id IN (" + in + ")",
+                    row -> {
+                        versions.put(row.getLong(1), row.getLong(2));
+                    }, tripIds.toArray());
+            return null;
+        });
+        return versions;
+    }
+
+    /** Identificador de la versión actual del viaje, apto para ETag. */
+    public String tag(Long tripId) {
+        return tag(tripId, current(tripId));
+    }
+
+    /** Identificador de una versión dada del viaje (por ejemplo, la de un resumen ya calculado). */
+    public String tag(Long tripId, long version) {
+        return tripId + "-" + version;
+    }
+
+    /**
+     * true si el viaje cambió o se borró en esta instancia hace menos de millis (por ejemplo,
+     * para no leerlo de una réplica atrasada). Solo se recuerdan los últimos max-lag-ms.
+     */
+    public boolean changedWithin(Long tripId, long millis) {
+        Long at;
+        synchronized (changedAt) {
+            at = changedAt.get(tripId);
+        }
+        return at != null && System.nanoTime() - at < TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /** Incrementa la versión del viaje con la transacción actual (o ya, si no hay). */
+    public void markChanged(Long tripId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(tripId);
+            changed(tripId);
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.tripIds.add(tripId);
+    }
+
+    /** Versión inicial de un viaje recién creado; no publica eventos. */
+    void markCreated(Long tripId) {
+        increment(tripId);
+    }
+
+    /** Anota el borrado y publica un TripDeletedEvent después del commit. */
+    public void markDeleted(Long tripId) {
+        afterCommit(() -> {
+            record(tripId);
+            events.publishEvent(new TripDeletedEvent(tripId));
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void increment(Long tripId) {
+        jdbc.update("UPDATE trips SET version = GREATEST(version + 1, ?) WHERE id = ?",
+                System.currentTimeMillis(), tripId);
+    }
+
+    private void changed(Long tripId) {
+        record(tripId);
+        events.publishEvent(new TripChangedEvent(tripId));
+    }
+
+    /** Anota el cambio al final (el mapa queda ordenado por momento) y descarta los vencidos del principio. */
+    private void record(Long tripId) {
+        long now = System.nanoTime();
+        synchronized (changedAt) {
+            changedAt.remove(tripId);
+            changedAt.put(tripId, now);
+            Iterator<Long> oldest = changedAt.values().iterator();
+            while (oldest.hasNext() && now - oldest.next() > retentionNanos) {
+                oldest.remove();
+            }
+        }
+    }
+
+    /** Cantidad de viajes con un cambio reciente anotado. */
+    int recentChanges() {
+        synchronized (changedAt) {
+            return changedAt.size();
+        }
+    }
+
+    /** Viajes a incrementar al confirmar la transacción (en orden de id, para bloquear siempre igual). */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        final TreeSet<Long> tripIds = new TreeSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            for (Long tripId : tripIds) {
+                increment(tripId);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            for (Long tripId : tripIds) {
+                changed(tripId);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TripVersions.this);
+        }
+    }
+}
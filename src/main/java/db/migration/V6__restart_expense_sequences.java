@@ -0,0 +1,44 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Lleva expenses_seq y expense_shares_seq más allá de los ids existentes. V3 las crea desde 1,
+ * pero en una base previa a Flyway los gastos y partes ya tenían ids IDENTITY: sin esto el
+ * primer bloque que reserva Hibernate choca con la clave primaria.
+ * <p>
+ * Es una migración Java porque el valor de reinicio sale de MAX(id) y ALTER SEQUENCE ... RESTART
+ * solo acepta una constante (en H2 y en PostgreSQL). Flyway la encuentra junto a las SQL
+ * (paquete db.migration).
+ */
+public class V6__restart_expense_sequences extends BaseJavaMigration {
+
+    /** Incremento de las secuencias (allocationSize de Expense y ExpenseShare). */
+    private static final long INCREMENT = 50;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            restart(statement, "expenses", "expenses_seq");
+            restart(statement, "expense_shares", "expense_shares_seq");
+        }
+    }
+
+    /**
+     * Hibernate (optimizador pooled) toma el valor de la secuencia como el final de un bloque de
+     * INCREMENT ids: reiniciarla en MAX(id) + INCREMENT hace que el primer bloque empiece en MAX(id) + 1.
+     */
+    private static void restart(Statement statement, String table, String sequence) throws SQLException {
+        long maxId;
+        try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + INCREMENT));
+    }
+}
@@ -0,0 +1,34 @@
+-- Esquema inicial, el mismo que generaba ddl-auto: update a partir de las entidades originales
+-- (todas con ids IDENTITY, sin libro de saldos). En bases ya existentes Flyway lo marca como
+-- aplicado (baseline-on-migrate, versión 1) y sigue desde V2.
+
+CREATE TABLE trips (
+    id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE persons (
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(255) NOT NULL,
+    trip_id BIGINT       NOT NULL,
+    CONSTRAINT fk_persons_trip FOREIGN KEY (trip_id) REFERENCES trips (id)
+);
+
+CREATE TABLE expenses (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description VARCHAR(255)   NOT NULL,
+    amount      NUMERIC(19, 2) NOT NULL,
+    paid_by_id  BIGINT         NOT NULL,
+    trip_id     BIGINT         NOT NULL,
+    CONSTRAINT fk_expenses_paid_by FOREIGN KEY (paid_by_id) REFERENCES persons (id),
+    CONSTRAINT fk_expenses_trip FOREIGN KEY (trip_id) REFERENCES trips (id)
+);
+
+CREATE TABLE expense_shares (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    expense_id BIGINT         NOT NULL,
+    person_id  BIGINT         NOT NULL,
+    amount     NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT fk_expense_shares_expense FOREIGN KEY (expense_id) REFERENCES expenses (id),
+    CONSTRAINT fk_expense_shares_person FOREIGN KEY (person_id) REFERENCES persons (id)
+);
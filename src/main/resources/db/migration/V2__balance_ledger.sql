@@ -0,0 +1,9 @@
+-- Libro de saldos por persona (LedgerEntry), mantenido en la misma transacción que cada escritura.
+CREATE TABLE balance_ledger (
+    person_id      BIGINT         NOT NULL PRIMARY KEY,
+    trip_id        BIGINT         NOT NULL,
+    total_paid     NUMERIC(19, 2) NOT NULL,
+    total_consumed NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT fk_balance_ledger_person FOREIGN KEY (person_id) REFERENCES persons (id),
+    CONSTRAINT fk_balance_ledger_trip FOREIGN KEY (trip_id) REFERENCES trips (id)
+);
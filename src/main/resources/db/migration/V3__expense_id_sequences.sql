@@ -0,0 +1,4 @@
+-- Gastos y partes pasan de IDENTITY a secuencias de a 50 (Hibernate reserva bloques y puede
+-- insertar en lote). La columna sigue siendo IDENTITY por defecto: Hibernate manda el id explícito.
+CREATE SEQUENCE expenses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE expense_shares_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,23 @@
+-- Índices para las consultas de los repositorios. PostgreSQL no indexa las claves
+-- foráneas por su cuenta; IF NOT EXISTS permite aplicarlo sobre bases que ya tenían alguno.
+
+-- Personas del viaje ordenadas por nombre; conteo en el listado; borrado por viaje.
+CREATE INDEX IF NOT EXISTS idx_persons_trip_name ON persons (trip_id, name);
+
+-- Página de gastos por viaje (id < cursor ORDER BY id DESC), exportación, conteo y borrado por viaje.
+CREATE INDEX IF NOT EXISTS idx_expenses_trip_id ON expenses (trip_id, id);
+
+-- SUM(amount) GROUP BY paid_by_id de un viaje y total del listado, resueltos solo con el índice.
+CREATE INDEX IF NOT EXISTS idx_expenses_trip_payer_amount ON expenses (trip_id, paid_by_id, amount);
+
+-- Gastos de un pagador (borrado de persona, ajuste del libro).
+CREATE INDEX IF NOT EXISTS idx_expenses_paid_by ON expenses (paid_by_id);
+
+-- Partes de un gasto con persona y monto: consumo por persona y exportación, solo con el índice.
+CREATE INDEX IF NOT EXISTS idx_expense_shares_expense_person_amount ON expense_shares (expense_id, person_id, amount);
+
+-- Partes de una persona (borrado de persona).
+CREATE INDEX IF NOT EXISTS idx_expense_shares_person ON expense_shares (person_id);
+
+-- Libro de saldos del viaje.
+CREATE INDEX IF NOT EXISTS idx_balance_ledger_trip ON balance_ledger (trip_id);
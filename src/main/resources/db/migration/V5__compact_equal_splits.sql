@@ -0,0 +1,4 @@
+-- División equitativa compacta: participantes y parte por persona en el propio gasto,
+-- en lugar de una fila de expense_shares por participante.
+ALTER TABLE expenses ADD COLUMN participant_ids VARCHAR(8000);
+ALTER TABLE expenses ADD COLUMN share_amount NUMERIC(19, 2);
@@ -0,0 +1,12 @@
+-- Completa el libro de saldos para las personas que no tienen fila (viajes anteriores al libro).
+-- Las filas existentes se mantienen: se escribieron en la misma transacción que cada gasto.
+INSERT INTO balance_ledger (person_id, trip_id, total_paid, total_consumed)
+SELECT p.id,
+       p.trip_id,
+       COALESCE((SELECT SUM(e.amount) FROM expenses e WHERE e.paid_by_id = p.id), 0),
+       COALESCE((SELECT SUM(s.amount) FROM expense_shares s WHERE s.person_id = p.id), 0)
+           + COALESCE((SELECT SUM(e.share_amount) FROM expenses e
+                       WHERE e.trip_id = p.trip_id
+                         AND e.participant_ids LIKE CONCAT('%,', CAST(p.id AS VARCHAR(20)), ',%')), 0)
+FROM persons p
+WHERE NOT EXISTS (SELECT 1 FROM balance_ledger l WHERE l.person_id = p.id);
@@ -0,0 +1,3 @@
+-- Versión de cada viaje (TripVersions), incrementada en la misma transacción que cada
+-- escritura: las cachés y ETags de todas las instancias la comparten.
+ALTER TABLE trips ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
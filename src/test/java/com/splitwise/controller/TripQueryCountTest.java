@@ -0,0 +1,101 @@
+package com.splitwise.controller;
+
+import com.splitwise.service.ExpenseService;
+import com.splitwise.service.TripService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * La cantidad de sentencias SQL de la página del viaje, del resumen y del alta de un gasto
+ * no depende del tamaño del viaje: se cuentan con las estadísticas de Hibernate en un viaje
+ * chico y en uno grande, con la caché de segundo nivel vacía, y tienen que coincidir.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:trip-query-count;DB_CLOSE_DELAY=-1",
+        "splitwise.summary-precompute.enabled=false"
+})
+@AutoConfigureMockMvc
+class TripQueryCountTest {
+
+    private static final long MAX_PAGE_STATEMENTS = 3;
+    private static final long MAX_SUMMARY_STATEMENTS = 3;
+    private static final long MAX_CREATE_STATEMENTS = 3;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private TripService tripService;
+    @Autowired
+    private ExpenseService expenseService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void statementCountDoesNotGrowWithTheTrip() throws Exception {
+        List<Long> small = seedTrip("Chico", 3, 2);
+        List<Long> large = seedTrip("Grande", 40, 300);
+
+        long smallPage = count(() -> mvc.perform(get("/trips/" + small.get(0))).andExpect(status().isOk()));
+        long largePage = count(() -> mvc.perform(get("/trips/" + large.get(0))).andExpect(status().isOk()));
+        assertEquals(smallPage, largePage, "página del viaje");
+        assertTrue(largePage <= MAX_PAGE_STATEMENTS, "página del viaje: " + largePage + " sentencias");
+
+        long smallSummary = count(() -> mvc.perform(get("/trips/" + small.get(0) + "/summary")).andExpect(status().isOk()));
+        long largeSummary = count(() -> mvc.perform(get("/trips/" + large.get(0) + "/summary")).andExpect(status().isOk()));
+        assertEquals(smallSummary, largeSummary, "resumen");
+        assertTrue(largeSummary <= MAX_SUMMARY_STATEMENTS, "resumen: " + largeSummary + " sentencias");
+
+        long smallCreate = count(() -> addExpense(small));
+        long largeCreate = count(() -> addExpense(large));
+        assertEquals(smallCreate, largeCreate, "alta de gasto");
+        assertTrue(largeCreate <= MAX_CREATE_STATEMENTS, "alta de gasto: " + largeCreate + " sentencias");
+    }
+
+    /** Sentencias que preparó Hibernate durante la acción, partiendo de la caché de segundo nivel vacía. */
+    private long count(Action action) throws Exception {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /** Viaje con la cantidad indicada de personas y gastos; devuelve el id del viaje y después los de las personas. */
+    private List<Long> seedTrip(String name, int people, int expenses) {
+        List<Long> ids = new ArrayList<>();
+        ids.add(tripService.createTrip(name).getId());
+        for (int p = 0; p < people; p++) {
+            ids.add(tripService.addPerson(ids.get(0), "Persona " + p).getId());
+        }
+        List<Long> personIds = ids.subList(1, ids.size());
+        for (int e = 0; e < expenses; e++) {
+            expenseService.createExpense(ids.get(0), "Gasto " + e, BigDecimal.valueOf(10 + e),
+                    personIds.get(e % people), personIds.subList(0, 1 + e % people));
+        }
+        return ids;
+    }
+
+    private void addExpense(List<Long> trip) {
+        expenseService.createExpense(trip.get(0), "Otro", new BigDecimal("30.00"), trip.get(1), trip.subList(1, 3));
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,63 @@
+package com.splitwise.datasource;
+
+import com.splitwise.service.TripService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Con réplica de lectura: la réplica es otra base que nunca recibe los cambios (una réplica
+ * atrasada todo el tiempo). Un viaje recién borrado no puede volver a aparecer desde la
+ * réplica, ni para otro navegador ni a través de la caché de segundo nivel.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-reads-primary;DB_CLOSE_DELAY=-1",
+        "splitwise.datasource.replica.url=" + ReplicaReadsTest.REPLICA_URL,
+        "splitwise.datasource.replica.username=sa",
+        "splitwise.datasource.replica.max-lag-ms=5000",
+        "splitwise.summary-precompute.enabled=false"
+})
+@AutoConfigureMockMvc
+class ReplicaReadsTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-reads-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private TripService tripService;
+
+    private static JdbcTemplate replica;
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        replica = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void deletedTripIsNotReadBackFromTheReplica() throws Exception {
+        Long tripId = tripService.createTrip("Viaje").getId();
+        // La réplica tiene el viaje, pero no se va a enterar del borrado.
+        replica.update("INSERT INTO trips (id, name) VALUES (?, ?)", tripId, "Viaje");
+
+        mvc.perform(post("/trips/" + tripId + "/delete")).andExpect(status().is3xxRedirection());
+
+        // Otro navegador (sin la cookie de read-your-writes), dos veces: la segunda pasaría por la caché.
+        for (int round = 0; round < 2; round++) {
+            mvc.perform(get("/trips/" + tripId)).andExpect(redirectedUrl("/"));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.splitwise.datasource;
+
+import com.jayway.jsonpath.JsonPath;
+import com.splitwise.model.Person;
+import com.splitwise.service.TripService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Perfil sharded con tres bases (shard 0 y dos más): un id de viaje que codifica un shard
+ * no configurado es un viaje que no existe, la API de resúmenes junta viajes de todos
+ * los shards en el orden pedido, y las personas (cuyos ids se repiten entre shards) no se
+ * confunden entre viajes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded-trips-0;DB_CLOSE_DELAY=-1",
+        "splitwise.sharding.shards[0].url=jdbc:h2:mem:sharded-trips-1;DB_CLOSE_DELAY=-1",
+        "splitwise.sharding.shards[1].url=jdbc:h2:mem:sharded-trips-2;DB_CLOSE_DELAY=-1",
+        "splitwise.summary-precompute.enabled=false"
+})
+@ActiveProfiles("sharded")
+@AutoConfigureMockMvc
+class ShardedTripsTest {
+
+    /** Codifica el shard 5; solo hay 0, 1 y 2. */
+    private static final long UNCONFIGURED_SHARD_TRIP = TripShards.firstTripId(5);
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private TripService tripService;
+
+    @Test
+    void tripOnAnUnconfiguredShardIsNotFound() throws Exception {
+        mvc.perform(get("/trips/" + UNCONFIGURED_SHARD_TRIP)).andExpect(status().isNotFound());
+        mvc.perform(get("/trips/" + UNCONFIGURED_SHARD_TRIP + "/summary")).andExpect(status().isNotFound());
+        mvc.perform(get("/api/trips/summaries").param("ids", String.valueOf(UNCONFIGURED_SHARD_TRIP)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notFound[0]").value(UNCONFIGURED_SHARD_TRIP));
+    }
+
+    @Test
+    void summariesKeepTheRequestedOrderAcrossShardsAndBatches() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            ids.add(tripService.createTrip("Viaje " + i).getId());
+        }
+        Collections.reverse(ids);
+        ids.add(22, UNCONFIGURED_SHARD_TRIP);
+
+        String body = mvc.perform(get("/api/trips/summaries")
+                        .param("ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<Number> written = JsonPath.read(body, "$.trips[*].id");
+        List<Long> expected = new ArrayList<>(ids);
+        expected.remove(UNCONFIGURED_SHARD_TRIP);
+        assertEquals(expected, written.stream().map(Number::longValue).toList());
+        assertEquals(List.of(UNCONFIGURED_SHARD_TRIP), JsonPath.<List<Number>>read(body, "$.notFound").stream()
+                .map(Number::longValue).toList());
+    }
+
+    @Test
+    void peopleWithTheSameIdOnDifferentShardsAreNotMixedUp() throws Exception {
+        Long first = tripService.createTrip("Primero").getId();
+        Long second = tripService.createTrip("Segundo").getId();
+        assertNotEquals(TripShards.shardOf(first), TripShards.shardOf(second));
+        Person ana = ShardContext.onTrip(first, () -> tripService.addPerson(first, "Ana"));
+        Person beto = ShardContext.onTrip(second, () -> tripService.addPerson(second, "Beto"));
+
+        for (int round = 0; round < 2; round++) {
+            mvc.perform(get("/trips/" + first + "/people/" + ana.getId() + "/edit"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("person", hasProperty("name",
+                            is("Ana"))));
+            mvc.perform(get("/trips/" + second + "/people/" + beto.getId() + "/edit"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("person", hasProperty("name",
+                            is("Beto"))));
+            mvc.perform(get("/trips/" + first)).andExpect(status().isOk())
+                    .andExpect(content().string(not(containsString("Beto"))));
+            mvc.perform(get("/trips/" + second)).andExpect(status().isOk())
+                    .andExpect(content().string(not(containsString("Ana"))));
+        }
+    }
+}
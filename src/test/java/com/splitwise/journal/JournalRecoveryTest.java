@@ -0,0 +1,124 @@
+package com.splitwise.journal;
+
+import com.splitwise.SplitwiseApplication;
+import com.splitwise.dto.PersonSummaryRow;
+import com.splitwise.service.ExpenseService;
+import com.splitwise.service.TripService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reinicio con el perfil journal: lo que se recupera del último snapshot más el journal
+ * posterior (incluido un borrado de persona y de viaje después del corte) da los mismos
+ * resúmenes que antes, y los ids nuevos quedan por encima de los cargados.
+ */
+class JournalRecoveryTest {
+
+    /** Registros hasta el primer snapshot. */
+    private static final int SNAPSHOT_EVERY = 10;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restartReplaysTheSnapshotAndTheTail() throws Exception {
+        // Los ids más altos que se recuperan: los nuevos tienen que quedar por encima.
+        Long tripId, otherTripId, lastPersonId, lastExpenseId;
+        List<String> summary;
+        try (ConfigurableApplicationContext app = start("journal-recovery-before")) {
+            TripService trips = app.getBean(TripService.class);
+            ExpenseService expenses = app.getBean(ExpenseService.class);
+
+            // Antes del corte, 10 registros: 2 viajes, 3 personas y 5 gastos.
+            otherTripId = trips.createTrip("Otro").getId();
+            tripId = trips.createTrip("Viaje").getId();
+            Long ana = trips.addPerson(tripId, "Ana").getId();
+            Long beto = trips.addPerson(tripId, "Beto").getId();
+            lastPersonId = beto;
+            Long carla = trips.addPerson(tripId, "Carla").getId();
+            expenses.createExpense(tripId, "Hotel", new BigDecimal("300.00"), ana, List.of(ana, beto, carla));
+            expenses.createExpense(tripId, "Nafta", new BigDecimal("80.00"), beto, List.of(ana, beto));
+            expenses.createExpense(tripId, "Museo", new BigDecimal("45.00"), carla, List.of(ana, beto, carla));
+            expenses.createExpense(tripId, "Regalo", new BigDecimal("20.00"), ana, List.of(carla));
+            expenses.createExpense(tripId, "Cena", new BigDecimal("90.00"), beto, List.of(ana, beto, carla));
+            awaitSnapshot();
+
+            // Después del corte: solo en el journal.
+            trips.deletePerson(tripId, carla);
+            lastExpenseId = expenses.createExpense(tripId, "Taxi", new BigDecimal("25.50"), ana, List.of(ana, beto)).getId();
+            trips.updateTrip(tripId, "Viaje renombrado");
+            trips.deleteTrip(otherTripId);
+            summary = describe(expenses.getSummary(tripId));
+        }
+
+        try (ConfigurableApplicationContext app = start("journal-recovery-after")) {
+            TripService trips = app.getBean(TripService.class);
+            ExpenseService expenses = app.getBean(ExpenseService.class);
+
+            assertEquals(summary, describe(expenses.getSummary(tripId)));
+            assertEquals(summary, describe(expenses.getTripSummary(tripId).getRows()));
+            assertEquals("Viaje renombrado", trips.getTripById(tripId).getName());
+            assertTrue(trips.findTripsById(List.of(otherTripId)).isEmpty(), "el viaje borrado no vuelve");
+
+            Long newTrip = trips.createTrip("Nuevo").getId();
+            Long newPerson = trips.addPerson(tripId, "Dani").getId();
+            Long newExpense = expenses.createExpense(tripId, "Helado", new BigDecimal("10.00"), newPerson,
+                    List.of(newPerson)).getId();
+            assertTrue(newTrip > tripId, "id de viaje " + newTrip);
+            assertTrue(newPerson > lastPersonId, "id de persona " + newPerson);
+            assertTrue(newExpense > lastExpenseId, "id de gasto " + newExpense);
+        }
+    }
+
+    private ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(SplitwiseApplication.class).run(
+                "--spring.profiles.active=journal",
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--server.port=0",
+                "--splitwise.journal.dir=" + dir,
+                "--splitwise.journal.segment-size-mb=1",
+                "--splitwise.journal.snapshot-every=" + SNAPSHOT_EVERY,
+                "--splitwise.summary-precompute.enabled=false");
+    }
+
+    /** Espera el snapshot del segmento 2 y el borrado del segmento 1, que ya contiene. */
+    private void awaitSnapshot() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!(JournalSnapshots.latest(dir).equals(Optional.of(2L)) && MappedJournal.segments(dir).equals(List.of(2L)))) {
+            assertTrue(System.currentTimeMillis() < deadline, "no se escribió el snapshot: " + listDir());
+            Thread.sleep(20);
+        }
+    }
+
+    private List<String> listDir() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString()).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> describe(List<PersonSummaryRow> rows) {
+        return rows.stream()
+                .map(row -> row.getPersonId() + " " + row.getPersonName()
+                        + " " + row.getTotalPaid().stripTrailingZeros().toPlainString()
+                        + " " + row.getTotalConsumed().stripTrailingZeros().toPlainString()
+                        + " " + row.getBalance().stripTrailingZeros().toPlainString())
+                .sorted()
+                .toList();
+    }
+}
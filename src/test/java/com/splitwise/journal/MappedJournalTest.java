@@ -0,0 +1,103 @@
+package com.splitwise.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Un registro del final roto (CRC inválido o largo que no entra) se descarta al leer, y al
+ * reabrir el segmento se limpia y la próxima escritura queda en su lugar.
+ */
+class MappedJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void aCorruptedTailRecordIsDroppedAndOverwritten() throws IOException {
+        write("uno", "dos", "un registro que se va a romper");
+        int end = MappedJournal.HEADER * 2 + "uno".length() + "dos".length();
+        // Un byte cambiado en los datos del tercer registro: su CRC ya no coincide.
+        overwrite(end + MappedJournal.HEADER + 3, new byte[]{'?'});
+
+        assertEquals(List.of("uno", "dos"), read());
+        reopenAndAppend("tres");
+
+        assertEquals(List.of("uno", "dos", "tres"), read());
+        assertZeroFrom(end + MappedJournal.HEADER + "tres".length());
+    }
+
+    @Test
+    void aTornTailRecordIsDroppedAndOverwritten() throws IOException {
+        write("uno", "dos");
+        int end = MappedJournal.HEADER * 2 + "uno".length() + "dos".length();
+        // Escritura cortada: quedó un largo que apunta más allá del segmento y algo de datos.
+        ByteBuffer torn = ByteBuffer.allocate(MappedJournal.HEADER + 16);
+        torn.putInt(SEGMENT_SIZE * 2).putInt(12345);
+        while (torn.hasRemaining()) {
+            torn.put((byte) 7);
+        }
+        overwrite(end, torn.array());
+
+        assertEquals(List.of("uno", "dos"), read());
+        reopenAndAppend("tres");
+
+        assertEquals(List.of("uno", "dos", "tres"), read());
+        assertZeroFrom(end + MappedJournal.HEADER + "tres".length());
+    }
+
+    private void write(String... records) {
+        MappedJournal journal = new MappedJournal(dir, SEGMENT_SIZE);
+        journal.open(1, 0);
+        for (String record : records) {
+            journal.append(record.getBytes(StandardCharsets.UTF_8));
+        }
+        journal.close();
+    }
+
+    /** Como al arrancar: se lee hasta donde es válido y se sigue escribiendo desde ahí. */
+    private void reopenAndAppend(String record) {
+        int end = MappedJournal.read(segment(), bytes -> { });
+        MappedJournal journal = new MappedJournal(dir, SEGMENT_SIZE);
+        journal.open(1, end);
+        journal.append(record.getBytes(StandardCharsets.UTF_8));
+        journal.close();
+    }
+
+    private List<String> read() {
+        List<String> records = new ArrayList<>();
+        MappedJournal.read(segment(), bytes -> records.add(new String(bytes, StandardCharsets.UTF_8)));
+        return records;
+    }
+
+    private void overwrite(int position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    private void assertZeroFrom(int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment(), StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int i = position; i < data.limit(); i++) {
+                assertEquals(0, data.get(i), "byte " + i + " después del último registro");
+            }
+        }
+    }
+
+    private Path segment() {
+        return MappedJournal.segmentPath(dir, 1);
+    }
+}
@@ -0,0 +1,145 @@
+package com.splitwise.repository;
+
+import com.splitwise.model.Person;
+import com.splitwise.service.ExpenseService;
+import com.splitwise.service.TripService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cada consulta de los repositorios se resuelve con índices (migraciones V4 en adelante):
+ * se ejecutan todas sobre un viaje de prueba, se toman las sentencias SQL que registró H2
+ * (INFORMATION_SCHEMA.QUERY_STATISTICS) y ningún EXPLAIN puede recorrer una tabla completa.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hot-query-plans;DB_CLOSE_DELAY=-1",
+        "splitwise.summary-precompute.enabled=false"
+})
+class HotQueryPlanTest {
+
+    @Autowired
+    private TripService tripService;
+    @Autowired
+    private ExpenseService expenseService;
+    @Autowired
+    private TripRepository tripRepository;
+    @Autowired
+    private PersonRepository personRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+    @Autowired
+    private LedgerRepository ledgerRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        long tripId = seedTrips();
+        List<Person> people = personRepository.findByTripIdOrderByName(tripId);
+        Long personId = people.get(0).getId();
+        Long otherId = people.get(1).getId();
+        Long expenseId = jdbc.queryForObject("SELECT MIN(id) FROM expenses WHERE trip_id = ?", Long.class, tripId);
+
+        jdbc.execute("SET QUERY_STATISTICS_MAX_ENTRIES 1000");
+        jdbc.execute("SET QUERY_STATISTICS TRUE");
+        // Las de escritura se ejecutan y se deshacen: interesa la sentencia, no el efecto.
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            tripRepository.findListPage(Long.MAX_VALUE, Limit.of(21));
+            personRepository.findByTripIdOrderByName(tripId);
+            personRepository.countByTripId(tripId);
+            personRepository.countPeopleByTrip(List.of(tripId, tripId + 1));
+            expenseRepository.findPageByTripId(tripId, Long.MAX_VALUE, Limit.of(50));
+            expenseRepository.sumPaidByPerson(tripId);
+            expenseRepository.sumEqualSplitsByParticipants(tripId);
+            expenseRepository.streamExportRows(tripId).close();
+            expenseShareRepository.findByPersonId(personId);
+            expenseShareRepository.findByExpenseId(expenseId);
+            expenseShareRepository.sumConsumedByPerson(tripId);
+            ledgerRepository.findByTripIdWithPerson(tripId);
+            ledgerRepository.findByTripIdInWithPerson(List.of(tripId, tripId + 1));
+            ledgerRepository.addPaid(personId, BigDecimal.ONE);
+            ledgerRepository.addConsumed(List.of(personId, otherId), BigDecimal.ONE);
+            ledgerRepository.addExpense(personId, BigDecimal.ONE, List.of(personId, otherId), BigDecimal.ONE);
+            ledgerRepository.subtractConsumedInExpensesPaidBy(tripId, personId);
+            ledgerRepository.deleteByPersonIdInBulk(personId);
+            ledgerRepository.deleteByTripIdInBulk(tripId);
+            expenseRepository.removeParticipantInBulk(tripId, "," + personId + ",");
+            expenseShareRepository.deleteByPersonIdInBulk(personId);
+            expenseShareRepository.deleteByPayerIdInBulk(personId);
+            expenseShareRepository.deleteByTripIdInBulk(tripId);
+            expenseRepository.deleteByPaidByIdInBulk(personId);
+            expenseRepository.deleteByTripIdInBulk(tripId);
+            personRepository.deleteByTripIdInBulk(tripId);
+            status.setRollbackOnly();
+        });
+        List<String> statements = jdbc.queryForList(
+                "SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS", String.class);
+        jdbc.execute("SET QUERY_STATISTICS FALSE");
+        List<String> scans = new ArrayList<>();
+        int explained = 0;
+        for (String sql : statements) {
+            String lower = sql.trim().toLowerCase(Locale.ROOT);
+            boolean dml = lower.startsWith("select") || lower.startsWith("update") || lower.startsWith("delete");
+            if (!dml || lower.contains("information_schema") || lower.contains("next value for")) {
+                continue;
+            }
+            String plan = explain(sql);
+            explained++;
+            if (plan.contains("tableScan")) {
+                scans.add(plan);
+            }
+        }
+        assertTrue(explained >= 20, "se esperaban las consultas de todos los repositorios, hubo " + explained);
+        assertTrue(scans.isEmpty(), "Consultas que recorren una tabla completa:\n" + String.join("\n\n", scans));
+    }
+
+    /** EXPLAIN con cada parámetro en 1 (ids, montos y límites; los textos se convierten solos). */
+    private String explain(String sql) {
+        Object[] args = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        java.util.Arrays.fill(args, 1L);
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    /**
+     * Tres viajes con personas, gastos en división compacta y algunas partes en expense_shares
+     * (las de gastos anteriores a la división compacta): con tablas vacías cualquier plan es barato.
+     */
+    private long seedTrips() {
+        long tripId = 0;
+        for (int t = 0; t < 3; t++) {
+            tripId = tripService.createTrip("Viaje " + t).getId();
+            List<Long> ids = new ArrayList<>();
+            for (int p = 0; p < 10; p++) {
+                ids.add(tripService.addPerson(tripId, "Persona " + p).getId());
+            }
+            for (int e = 0; e < 100; e++) {
+                expenseService.createExpense(tripId, "Gasto " + e, BigDecimal.valueOf(10 + e),
+                        ids.get(e % ids.size()), ids.subList(0, 1 + e % ids.size()));
+            }
+            long expenseId = jdbc.queryForObject("SELECT MAX(id) FROM expenses WHERE trip_id = ?", Long.class, tripId);
+            for (Long personId : ids) {
+                jdbc.update("INSERT INTO expense_shares (id, expense_id, person_id, amount) "
+                        + "VALUES (NEXT VALUE FOR expense_shares_seq, ?, ?, 1.00)", expenseId, personId);
+            }
+        }
+        jdbc.execute("ANALYZE");
+        return tripId;
+    }
+}
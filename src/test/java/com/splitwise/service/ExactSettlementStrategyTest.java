@@ -0,0 +1,44 @@
+package com.splitwise.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La estrategia exacta respeta su presupuesto: con saldos repetidos (divisiones equitativas)
+ * los subconjuntos de suma cero se cuentan por cientos de miles, y en ese caso tiene que
+ * rendirse cerca del tiempo presupuestado en lugar de enumerarlos todos.
+ */
+class ExactSettlementStrategyTest {
+
+    private static final long BUDGET_MS = 50;
+
+    private final ExactSettlementStrategy strategy = new ExactSettlementStrategy(25, BUDGET_MS);
+
+    @Test
+    void repeatedBalancesStayWithinTheBudget() {
+        long[] balances = new long[24];
+        for (int i = 0; i < 16; i++) balances[i] = -1000;
+        for (int i = 16; i < 24; i++) balances[i] = 2000;
+
+        strategy.settle(balances);
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            strategy.settle(balances);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsedMs < BUDGET_MS + 100, "tardó " + elapsedMs + " ms");
+        }
+    }
+
+    @Test
+    void smallTripsGetTheMinimumNumberOfTransfers() {
+        // Dos grupos de suma cero: {-300, 100, 200} y {-50, 50}; el mínimo es 3 pagos.
+        TransferPlan plan = strategy.settle(new long[]{-300, 100, 200, -50, 50});
+        assertNotNull(plan);
+        assertEquals(3, plan.size());
+    }
+}
@@ -0,0 +1,60 @@
+package com.splitwise.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Un gasto cuyo único participante se borró sigue en la exportación, en una fila sin
+ * participante, tanto en CSV como en JSON Lines.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:expense-export;DB_CLOSE_DELAY=-1",
+        "splitwise.summary-precompute.enabled=false"
+})
+class ExpenseExportServiceTest {
+
+    @Autowired
+    private TripService tripService;
+    @Autowired
+    private ExpenseService expenseService;
+    @Autowired
+    private ExpenseExportService exportService;
+
+    @Test
+    void expensesWithoutParticipantsAreStillExported() throws IOException {
+        Long tripId = tripService.createTrip("Viaje").getId();
+        Long ana = tripService.addPerson(tripId, "Ana").getId();
+        Long beto = tripService.addPerson(tripId, "Beto").getId();
+        Long shared = expenseService.createExpense(tripId, "Hotel", new BigDecimal("50.00"), ana, List.of(ana, beto)).getId();
+        Long alone = expenseService.createExpense(tripId, "Regalo", new BigDecimal("30.00"), ana, List.of(beto)).getId();
+        tripService.deletePerson(tripId, beto);
+
+        assertEquals(List.of(
+                "expense_id,description,amount,paid_by,participant,share_amount",
+                shared + ",Hotel,50.00,Ana,Ana,25.00",
+                alone + ",Regalo,30.00,Ana,,"
+        ), export(tripId, ExpenseExportService.Format.CSV));
+
+        assertEquals(List.of(
+                "{\"expenseId\":" + shared + ",\"description\":\"Hotel\",\"amount\":50.00,\"paidBy\":\"Ana\","
+                        + "\"participant\":\"Ana\",\"shareAmount\":25.00}",
+                "{\"expenseId\":" + alone + ",\"description\":\"Regalo\",\"amount\":30.00,\"paidBy\":\"Ana\","
+                        + "\"participant\":null,\"shareAmount\":null}"
+        ), export(tripId, ExpenseExportService.Format.JSONL));
+    }
+
+    private List<String> export(Long tripId, ExpenseExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(tripId, format, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
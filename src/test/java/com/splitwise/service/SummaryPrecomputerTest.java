@@ -0,0 +1,63 @@
+package com.splitwise.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * El recálculo en segundo plano guarda el resumen de un viaje que cambió, pero no el de
+ * uno borrado: el borrado cancela lo pendiente y descarta lo guardado.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:summary-precompute;DB_CLOSE_DELAY=-1",
+        "splitwise.summary-precompute.debounce-ms=50"
+})
+class SummaryPrecomputerTest {
+
+    @Autowired
+    private TripService tripService;
+    @Autowired
+    private ExpenseService expenseService;
+    @Autowired
+    private SummaryPrecomputer summaryPrecomputer;
+    @Autowired
+    private TripSummaryCache summaryCache;
+
+    @Test
+    void changedTripsArePrecomputed() throws InterruptedException {
+        Long tripId = seedTrip();
+        awaitIdle(tripId);
+        assertNotNull(summaryCache.getLatest(tripId));
+    }
+
+    @Test
+    void deletedTripsLeaveNoSummary() throws InterruptedException {
+        Long tripId = seedTrip();
+        tripService.deleteTrip(tripId);
+        awaitIdle(tripId);
+        Thread.sleep(200);
+        assertFalse(summaryPrecomputer.isPending(tripId));
+        assertNull(summaryCache.getLatest(tripId));
+    }
+
+    private Long seedTrip() {
+        Long tripId = tripService.createTrip("Viaje").getId();
+        Long ana = tripService.addPerson(tripId, "Ana").getId();
+        Long beto = tripService.addPerson(tripId, "Beto").getId();
+        expenseService.createExpense(tripId, "Cena", new BigDecimal("20.00"), ana, List.of(ana, beto));
+        return tripId;
+    }
+
+    private void awaitIdle(Long tripId) throws InterruptedException {
+        for (int i = 0; i < 100 && summaryPrecomputer.isPending(tripId); i++) {
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.splitwise.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La versión de un viaje está en la base: otra instancia de la aplicación (otro
+ * TripVersions sobre la misma base) ve los cambios, cada transacción la incrementa una vez
+ * al confirmarse y un viaje borrado deja de tener versión. Los cambios y borrados recientes
+ * se recuerdan durante el atraso máximo de la réplica.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:trip-versions;DB_CLOSE_DELAY=-1",
+        "splitwise.summary-precompute.enabled=false"
+})
+class TripVersionsTest {
+
+    @Autowired
+    private TripService tripService;
+    @Autowired
+    private TripVersions tripVersions;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void otherInstancesSeeTheNewVersion() {
+        TripVersions otherInstance = new TripVersions(jdbc, event -> { }, 1000);
+        Long tripId = tripService.createTrip("Viaje").getId();
+        String before = otherInstance.tag(tripId);
+
+        tripService.addPerson(tripId, "Ana");
+
+        assertNotEquals(before, otherInstance.tag(tripId));
+        assertEquals(tripVersions.current(tripId), otherInstance.current(tripId));
+    }
+
+    @Test
+    void versionsFollowTheClockAndCommits() {
+        long start = System.currentTimeMillis();
+        Long tripId = tripService.createTrip("Viaje").getId();
+        long created = tripVersions.current(tripId);
+        assertTrue(created >= start, "la versión inicial es la hora de creación");
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            tripVersions.markChanged(tripId);
+            tripVersions.markChanged(tripId);
+            assertEquals(created, tripVersions.current(tripId), "no cambia antes del commit");
+        });
+        long committed = tripVersions.current(tripId);
+        assertTrue(committed > created);
+        assertTrue(committed <= Math.max(created + 1, System.currentTimeMillis()), "una vez por transacción");
+
+        tx.executeWithoutResult(status -> {
+            tripVersions.markChanged(tripId);
+            status.setRollbackOnly();
+        });
+        assertEquals(committed, tripVersions.current(tripId), "un rollback no la cambia");
+    }
+
+    @Test
+    void deletedTripsHaveNoVersion() {
+        Long tripId = tripService.createTrip("Viaje").getId();
+        String before = tripVersions.tag(tripId);
+        tripService.deleteTrip(tripId);
+
+        assertEquals(TripVersions.MISSING, tripVersions.current(tripId));
+        assertNotEquals(before, tripVersions.tag(tripId));
+        assertTrue(tripVersions.changedWithin(tripId, 1000), "el borrado se recuerda (réplicas atrasadas)");
+    }
+
+    @Test
+    void recentChangesAreForgottenAfterTheReplicaLag() throws InterruptedException {
+        TripVersions versions = new TripVersions(jdbc, event -> { }, 20);
+        Long first = tripService.createTrip("Uno").getId();
+        Long second = tripService.createTrip("Dos").getId();
+
+        versions.markChanged(first);
+        Thread.sleep(50);
+        versions.markDeleted(second);
+
+        assertEquals(1, versions.recentChanges());
+        assertFalse(versions.changedWithin(first, 20));
+        assertTrue(versions.changedWithin(second, 20));
+    }
+}